@@ -0,0 +1,236 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+import java.util.concurrent.*;
+
+// Every word in the dictionary grouped by the letters it is made of, for hints and quick rack lookups
+// A word's signature is how many of each letter it has: 4 bits per letter, A-P in one long and Q-Z in another, so two
+// words are anagrams exactly when their signatures are equal. The index is an open-addressing table from signature to
+// a group number, and the words themselves are one byte array sorted by group, so a group is a slice of it.
+// Looking up a rack goes through every different set of letters it can make (blanks included) and checks each one in
+// the table. That allocates nothing but the results, and takes tens of microseconds for a rack without blanks (each
+// blank multiplies the sets to try by up to 27, so a rack with both blanks takes a couple of milliseconds).
+public final class AnagramIndex {
+    private static final int LETTER_COUNT = 26;
+    private static final int LO_LETTERS = 16; // A-P go in the low long, Q-Z in the high one
+    private static final int MAX_LENGTH = GameEngine.BOARD_SIZE; // Longer words could never be played
+    private static final int MIN_LENGTH = 2;
+
+    private final int[] slotGroup; // Group in each slot of the table (-1 if the slot is empty)
+    private final long[] groupLo, groupHi; // Signature of each group
+    private final int slotMask;
+    private final int[] groupStart; // Group g is words groupStart[g] to groupStart[g + 1] - 1
+    private final int[] wordStart; // Word w is letters[wordStart[w]] to letters[wordStart[w + 1] - 1]
+    private final byte[] letters;
+
+    // A word that can be made, with the letters the blanks stand for and its score (face value, blanks worth nothing)
+    public static final class Hint {
+        public final String word;
+        public final String blanks; // Letters played with a blank, e.g. "E" (empty if no blank is used)
+        public final int score;
+
+        Hint(String word, String blanks, int score) {
+            this.word = word;
+            this.blanks = blanks;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return word + (blanks.isEmpty() ? "" : " (blank " + blanks + ")") + " " + score;
+        }
+    }
+
+    private static CompletableFuture<AnagramIndex> building; // The shared index, only ever set once
+
+    // Starts building the index of the shared dictionary in the background, as soon as the dictionary has loaded
+    // (does nothing if it has already been started)
+    public static synchronized CompletableFuture<AnagramIndex> preload() {
+        if (building == null) {
+            building = SharedDictionary.preload().thenApplyAsync(AnagramIndex::new, task -> {
+                Thread builder = new Thread(task, "anagram-index");
+                builder.setDaemon(true); // Never stops the program from closing
+                builder.start();
+            });
+        }
+        return building;
+    }
+
+    // Checks if the shared index can be used without waiting
+    public static boolean isReady() {
+        return preload().isDone();
+    }
+
+    // The index of the shared dictionary, waiting for it to be built if it isn't yet (a fraction of a second)
+    public static AnagramIndex shared() {
+        return preload().join();
+    }
+
+    // Collects every word in the lexicon and groups them
+    public AnagramIndex(Lexicon lexicon) {
+        // Every word in alphabetical order, by walking the graph
+        byte[] pool = new byte[1 << 16];
+        int[] starts = new int[lexicon.wordCount() + 1];
+        int[] count = {0, 0}; // Words, letters
+        byte[] path = new byte[MAX_LENGTH];
+        pool = collect(lexicon, Lexicon.ROOT, path, 0, pool, starts, count);
+        int words = count[0];
+
+        // Gives every different signature a group, counting the words in each
+        int slots = Integer.highestOneBit(Math.max(words, 1) * 2 - 1) << 1; // At most half full
+        long[] lows = new long[words], highs = new long[words];
+        slotGroup = new int[slots];
+        Arrays.fill(slotGroup, -1);
+        slotMask = slots - 1;
+        int[] groupOf = new int[words];
+        int[] sizes = new int[words + 1];
+        int groups = 0;
+        for (int w = 0; w < words; w++) {
+            long lo = 0, hi = 0;
+            for (int i = starts[w]; i < starts[w + 1]; i++) {
+                int c = pool[i];
+                if (c < LO_LETTERS) lo += 1L << (4 * c);
+                else hi += 1L << (4 * (c - LO_LETTERS));
+            }
+            int slot = slot(lo, hi, lows, highs);
+            if (slotGroup[slot] < 0) {
+                lows[groups] = lo;
+                highs[groups] = hi;
+                slotGroup[slot] = groups++;
+            }
+            groupOf[w] = slotGroup[slot];
+            sizes[groupOf[w]]++;
+        }
+
+        // Lays the words out group by group (still alphabetical inside each group)
+        groupLo = Arrays.copyOf(lows, groups);
+        groupHi = Arrays.copyOf(highs, groups);
+        groupStart = new int[groups + 1];
+        for (int g = 0; g < groups; g++) groupStart[g + 1] = groupStart[g] + sizes[g];
+        int[] order = new int[words];
+        int[] next = Arrays.copyOf(groupStart, groups);
+        for (int w = 0; w < words; w++) order[next[groupOf[w]]++] = w;
+        wordStart = new int[words + 1];
+        letters = new byte[count[1]];
+        int at = 0;
+        for (int i = 0; i < words; i++) {
+            int w = order[i];
+            int length = starts[w + 1] - starts[w];
+            System.arraycopy(pool, starts[w], letters, at, length);
+            wordStart[i] = at;
+            at += length;
+        }
+        wordStart[words] = at;
+    }
+
+    // Depth-first walk of the graph, appending every word of a playable length to pool (grown as needed)
+    private static byte[] collect(Lexicon lexicon, int node, byte[] path, int depth, byte[] pool, int[] starts, int[] count) {
+        if (lexicon.isTerminal(node) && depth >= MIN_LENGTH) {
+            if (count[1] + depth > pool.length) pool = Arrays.copyOf(pool, pool.length * 2);
+            System.arraycopy(path, 0, pool, count[1], depth);
+            count[1] += depth;
+            starts[++count[0]] = count[1];
+        }
+        if (depth == MAX_LENGTH) return pool;
+        for (int m = lexicon.letters(node); m != 0; m &= m - 1) {
+            int c = Integer.numberOfTrailingZeros(m);
+            path[depth] = (byte) c;
+            pool = collect(lexicon, lexicon.child(node, (char) ('A' + c)), path, depth + 1, pool, starts, count);
+        }
+        return pool;
+    }
+
+    // Slot a signature is in, or the empty slot where it would go
+    private int slot(long lo, long hi, long[] lows, long[] highs) {
+        long h = lo * 0x9E3779B97F4A7C15L + hi * 0xC2B2AE3D27D4EB4FL;
+        int slot = (int) (h ^ (h >>> 32)) & slotMask;
+        int g;
+        while ((g = slotGroup[slot]) >= 0 && (lows[g] != lo || highs[g] != hi)) slot = (slot + 1) & slotMask;
+        return slot;
+    }
+
+    // Every word the current player's rack can make
+    public List<Hint> find(GameEngine engine) {
+        char[] rack = new char[GameEngine.RACK_SIZE];
+        for (int i = 0; i < rack.length; i++) rack[i] = engine.rackSlot(engine.currentPlayer(), i);
+        return find(rack, GameEngine.EMPTY);
+    }
+
+    // Every word a rack can make (EMPTY slots are ignored, BLANK can be any letter), best score first
+    public List<Hint> find(char[] rack) {
+        return find(rack, GameEngine.EMPTY);
+    }
+
+    // Every word a rack can make using boardLetter as well (EMPTY for none), best score first
+    public List<Hint> find(char[] rack, char boardLetter) {
+        Search search = new Search();
+        for (char c : rack) {
+            if (c == GameEngine.BLANK) search.blanks++;
+            else if (c >= 'A' && c <= 'Z') search.have[c - 'A']++;
+        }
+        if (boardLetter >= 'A' && boardLetter <= 'Z') {
+            search.required = boardLetter - 'A';
+            search.have[search.required]++; // Free, but has to be used
+        }
+        for (int i = 0; i < LETTER_COUNT; i++) if (search.have[i] > 0) search.present |= 1 << i;
+        search.run(0, 0, 0, 0, search.blanks, 0);
+        search.hints.sort((a, b) -> a.score != b.score ? b.score - a.score
+                : a.word.length() != b.word.length() ? b.word.length() - a.word.length() : a.word.compareTo(b.word));
+        return search.hints;
+    }
+
+    // Goes through every multiset of letters a rack can make, one letter at a time, looking each one up
+    private final class Search {
+        final int[] have = new int[LETTER_COUNT];
+        final int[] blankAt = new int[LETTER_COUNT]; // Blanks used as each letter on the current path
+        final List<Hint> hints = new ArrayList<>();
+        int blanks, present, required = -1;
+
+        // Picks how many of letter c (and on) to use; blanks only make up what the rack is short of, which scores best
+        void run(int c, long lo, long hi, int length, int blanksLeft, int score) {
+            if (blanksLeft == 0) { // Letters the rack doesn't have can only be used 0 times
+                int rest = present & (-1 << c);
+                c = rest == 0 ? LETTER_COUNT : Integer.numberOfTrailingZeros(rest); // The board letter is in present too
+            }
+            if (c == LETTER_COUNT) {
+                if (length >= MIN_LENGTH) emit(lo, hi, score);
+                return;
+            }
+            long unit = c < LO_LETTERS ? 1L << (4 * c) : 1L << (4 * (c - LO_LETTERS));
+            int most = Math.min(have[c] + blanksLeft, MAX_LENGTH - length);
+            for (int n = c == required ? 1 : 0; n <= most; n++) {
+                int fromBlanks = Math.max(0, n - have[c]);
+                blankAt[c] = fromBlanks;
+                long add = unit * n;
+                run(c + 1, c < LO_LETTERS ? lo + add : lo, c < LO_LETTERS ? hi : hi + add, length + n, blanksLeft - fromBlanks,
+                        score + (n - fromBlanks) * GameEngine.VALUES[c]);
+            }
+            blankAt[c] = 0;
+        }
+
+        void emit(long lo, long hi, int score) {
+            int group = slotGroup[slot(lo, hi, groupLo, groupHi)];
+            if (group < 0) return;
+            String blankLetters = "";
+            for (int c = 0; c < LETTER_COUNT; c++) {
+                for (int k = 0; k < blankAt[c]; k++) blankLetters += (char) ('A' + c);
+            }
+            for (int w = groupStart[group]; w < groupStart[group + 1]; w++) hints.add(new Hint(word(w), blankLetters, score));
+        }
+    }
+
+    private String word(int w) {
+        char[] chars = new char[wordStart[w + 1] - wordStart[w]];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) ('A' + letters[wordStart[w] + i]);
+        return new String(chars);
+    }
+
+    public int wordCount() { return wordStart.length - 1; }
+    public int groupCount() { return groupStart.length - 1; }
+
+    // Heap taken by the arrays
+    public long sizeInBytes() {
+        return 4L * slotGroup.length + 16L * groupLo.length + 4L * groupStart.length + 4L * wordStart.length + letters.length;
+    }
+}
@@ -0,0 +1,186 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+
+// Timings for the hot paths, so every performance change can be measured before and after
+// Run from the folder above the project (like the game): java FPT.Benchmarks [name filter] [--quick]
+// This is the quick, no-build version. For numbers to compare between changes, use the JMH module in bench/
+// (forked JVMs, several iterations with error bars, and the GC profiler), which builds its fixtures from here.
+// Each benchmark is warmed up, then run in a loop for a fixed time. It prints operations per second, nanoseconds per
+// operation and bytes allocated per operation (from the thread's allocation counter, so GC pauses don't matter).
+// Board fixtures come from computer-played games with fixed seeds, stopped early, in the middle and late in the game.
+public class Benchmarks {
+    static final int CELL_SIZE = 60; // Same as the game window
+    private static final int MAX_SEED = 1000; // Seeds tried for a fixture before giving up
+    static final String[] STAGES = {"early", "mid", "late"}; // Fixture positions (also used by the JMH module in bench/)
+    private static final int[] STAGE_TURNS = {2, 10, 18}; // Turns played to reach each stage
+
+    // One operation of a benchmark, returns anything so the work can't be optimised away
+    interface Op {
+        long run() throws Exception;
+    }
+
+    private final long warmupNanos, measureNanos;
+    private final String filter;
+    private long sink; // Every result is added here
+
+    Benchmarks(String filter, boolean quick) {
+        this.filter = filter;
+        this.warmupNanos = quick ? 200_000_000L : 1_000_000_000L;
+        this.measureNanos = quick ? 300_000_000L : 2_000_000_000L;
+    }
+
+    // A board part way through a game: the engine, the current player's rack and a move they could make
+    static final class Fixture {
+        final String name;
+        final GameEngine engine;
+        final Move move;
+
+        Fixture(String name, GameEngine engine, Move move) {
+            this.name = name;
+            this.engine = engine;
+            this.move = move;
+        }
+    }
+
+    // Plays a seeded game for turns turns, then picks a move for the player to move (one with a blank if blank is set)
+    // Seeds are tried in order until one gives such a move, so the same fixture comes out every time
+    static Fixture fixture(String name, Lexicon lexicon, int turns, boolean blank) {
+        ComputerPlayer player = new ComputerPlayer(lexicon);
+        MoveGenerator generator = new MoveGenerator(lexicon);
+        for (long seed = 1; seed <= MAX_SEED; seed++) {
+            GameEngine engine = new GameEngine(2, lexicon, seed);
+            for (int turn = 0; turn < turns && !engine.isGameOver(); turn++) player.takeTurn(engine);
+            if (engine.isGameOver()) continue;
+            Move chosen = null;
+            for (Move move : generator.generate(engine)) {
+                if ((move.blanks != 0) != blank || move.tileCount() < 2) continue;
+                if (chosen == null || move.score > chosen.score) chosen = move;
+            }
+            if (chosen != null) return new Fixture(name, engine, chosen);
+        }
+        throw new IllegalStateException("No seed up to " + MAX_SEED + " gives a " + name + " fixture (is the dictionary empty?)");
+    }
+
+    // The fixture for a stage (early, mid or late), with or without a blank in its move
+    static Fixture stage(Lexicon lexicon, String stage, boolean blank) {
+        int i = Arrays.asList(STAGES).indexOf(stage);
+        if (i < 0) throw new IllegalArgumentException("No stage " + stage);
+        return fixture(blank ? stage + ".blank" : stage, lexicon, STAGE_TURNS[i], blank);
+    }
+
+    // Puts the fixture move's tiles down (blanks unassigned, like a player dropping them)
+    static void place(Fixture f) {
+        Move move = f.move;
+        int remaining = move.tiles;
+        while (remaining != 0) { // Same order rule as GameEngine.playMove
+            int before = remaining;
+            for (int m = remaining; m != 0; m &= m - 1) {
+                int i = Integer.numberOfTrailingZeros(m);
+                if (f.engine.placeTile(move.rackLetter(i), move.square(i))) remaining &= ~(1 << i);
+            }
+            if (remaining == before) { // A tile was refused, so the fixture's engine isn't where it should be
+                f.engine.resetPlacedTiles();
+                throw new IllegalStateException("Fixture " + f.name + " can't place " + move);
+            }
+        }
+    }
+
+    // Runs one benchmark (if it matches the filter) and prints its line
+    void bench(String name, Op op) throws Exception {
+        if (filter != null && !name.contains(filter)) return;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) sink += op.run();
+
+        long ops = 0, bytesBefore = threads.getThreadAllocatedBytes(thread), start = System.nanoTime(), now;
+        end = start + measureNanos;
+        do {
+            sink += op.run();
+            ops++;
+        } while ((now = System.nanoTime()) < end);
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        double nanosPerOp = (double) (now - start) / ops;
+        System.out.printf("%-28s %14.1f ops/s %14.1f ns/op %12.1f B/op%n", name, 1e9 / nanosPerOp, nanosPerOp, (double) bytes / ops);
+    }
+
+    void runAll() throws Exception {
+        Path text = Paths.get("FPT/words.txt"), snapshot = Paths.get("FPT/words.dawg");
+        if (Files.exists(snapshot)) bench("dictionary.loadSnapshot", () -> Lexicon.loadSnapshot(snapshot).wordCount());
+        if (Files.exists(text)) bench("dictionary.buildFromText", () -> Lexicon.load(text.toString()).wordCount());
+
+        Lexicon lexicon = SharedDictionary.get();
+        List<Fixture> fixtures = new ArrayList<>();
+        for (String stage : STAGES) {
+            fixtures.add(stage(lexicon, stage, false));
+            fixtures.add(stage(lexicon, stage, true));
+        }
+
+        for (Fixture f : fixtures) { // Drop the tiles, check the words, take them back
+            bench("validateWords." + f.name, () -> {
+                place(f);
+                boolean valid = f.engine.validateWords();
+                f.engine.resetPlacedTiles();
+                return valid ? 1 : 0;
+            });
+        }
+        for (Fixture f : fixtures) { // Drop and take back only, to see what validating adds
+            bench("placeAndReset." + f.name, () -> {
+                place(f);
+                f.engine.resetPlacedTiles();
+                return f.engine.placedCount();
+            });
+        }
+        for (Fixture f : fixtures) {
+            if (f.name.endsWith(".blank")) continue; // Scoring doesn't care about blanks
+            place(f);
+            f.engine.validateWords();
+            bench("calculateScore." + f.name, () -> f.engine.calculateScore());
+            bench("recalculateValidSpots." + f.name, () -> {
+                f.engine.recalculateValidSpots();
+                return f.engine.placedCount();
+            });
+            f.engine.resetPlacedTiles();
+        }
+
+        int size = CELL_SIZE * GameEngine.BOARD_SIZE;
+        BufferedImage image = TileImages.createCompatibleImage(size, size);
+        for (Fixture f : fixtures) {
+            if (f.name.endsWith(".blank")) continue;
+            BoardComponent board = new BoardComponent(f.engine, CELL_SIZE, (row, col) -> {});
+            board.setSize(size, size);
+            board.setShowHighlights(true);
+            bench("paintBoard." + f.name, () -> paint(board, image, new Rectangle(0, 0, size, size)));
+            bench("paintSquare." + f.name, () -> paint(board, image, new Rectangle(7 * CELL_SIZE, 7 * CELL_SIZE, CELL_SIZE, CELL_SIZE)));
+        }
+        if (sink == 42) System.out.println(); // Uses the results
+    }
+
+    // Paints the board (only inside clip) into an off-screen image, like a repaint would
+    static long paint(BoardComponent board, BufferedImage image, Rectangle clip) {
+        Graphics2D g = image.createGraphics();
+        g.setClip(clip);
+        board.paint(g);
+        g.dispose();
+        return image.getRGB(clip.x, clip.y);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String filter = null;
+        boolean quick = false;
+        for (String arg : args) {
+            if (arg.equals("--quick")) quick = true;
+            else filter = arg;
+        }
+        new Benchmarks(filter, quick).runAll();
+    }
+}
@@ -0,0 +1,105 @@
+package FPT; // The folder containing all the other files in the project
+
+// A set of board squares as 225 bits packed into four longs (bit = row * 15 + col)
+// Every operation works in place, so nothing is allocated while a game is being played or searched.
+public final class Bitboard {
+    public static final int SIZE = GameEngine.SQUARES;
+    private static final int WORDS = 4;
+    private static final int N = GameEngine.BOARD_SIZE;
+
+    private static final Bitboard ALL = new Bitboard(); // Every square
+    private static final Bitboard NOT_FIRST_COLUMN = new Bitboard(); // Every square except column 0
+    private static final Bitboard NOT_LAST_COLUMN = new Bitboard(); // Every square except column 14
+
+    static {
+        for (int square = 0; square < SIZE; square++) {
+            ALL.set(square);
+            if (square % N != 0) NOT_FIRST_COLUMN.set(square);
+            if (square % N != N - 1) NOT_LAST_COLUMN.set(square);
+        }
+    }
+
+    private final long[] words = new long[WORDS];
+
+    public boolean get(int square) {
+        return (words[square >> 6] & (1L << square)) != 0;
+    }
+
+    public void set(int square) {
+        words[square >> 6] |= 1L << square;
+    }
+
+    public void clear(int square) {
+        words[square >> 6] &= ~(1L << square);
+    }
+
+    public void clearAll() {
+        for (int i = 0; i < WORDS; i++) words[i] = 0;
+    }
+
+    public void copyFrom(Bitboard other) {
+        System.arraycopy(other.words, 0, words, 0, WORDS);
+    }
+
+    public void or(Bitboard other) {
+        for (int i = 0; i < WORDS; i++) words[i] |= other.words[i];
+    }
+
+    public void and(Bitboard other) {
+        for (int i = 0; i < WORDS; i++) words[i] &= other.words[i];
+    }
+
+    public void andNot(Bitboard other) {
+        for (int i = 0; i < WORDS; i++) words[i] &= ~other.words[i];
+    }
+
+    public boolean isEmpty() {
+        return (words[0] | words[1] | words[2] | words[3]) == 0;
+    }
+
+    public int count() {
+        int total = 0;
+        for (long w : words) total += Long.bitCount(w);
+        return total;
+    }
+
+    // Checks if the two sets have any square in common
+    public boolean intersects(Bitboard other) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    // First square at or after from that is in the set (-1 if there isn't one)
+    public int nextSetBit(int from) {
+        if (from >= SIZE) return -1;
+        int i = from >> 6;
+        long w = words[i] & (-1L << from);
+        while (true) {
+            if (w != 0) return i * 64 + Long.numberOfTrailingZeros(w);
+            if (++i == WORDS) return -1;
+            w = words[i];
+        }
+    }
+
+    // Sets this to every square next to (up, down, left or right of) a square in source, using shifts and masks
+    public void neighboursOf(Bitboard source) {
+        long[] s = source.words;
+        long carry1 = 0, carry15 = 0;
+        for (int i = 0; i < WORDS; i++) { // Right and down neighbours: shift towards higher squares
+            long right = (s[i] << 1) | carry1;
+            long down = (s[i] << N) | carry15;
+            carry1 = s[i] >>> 63;
+            carry15 = s[i] >>> (64 - N);
+            words[i] = (right & NOT_FIRST_COLUMN.words[i]) | down;
+        }
+        for (int i = WORDS - 1; i >= 0; i--) { // Left and up neighbours: shift towards lower squares
+            long next = i + 1 < WORDS ? s[i + 1] : 0;
+            long left = (s[i] >>> 1) | (next << 63);
+            long up = (s[i] >>> N) | (next << (64 - N));
+            words[i] |= (left & NOT_LAST_COLUMN.words[i]) | up;
+        }
+        and(ALL); // Drops anything shifted off the bottom of the board
+    }
+}
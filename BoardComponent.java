@@ -0,0 +1,175 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+
+// The whole 15 x 15 board as one component, painted straight from the engine (or any other BoardView)
+// Replaces 225 JLabels in a GridLayout: one mouse listener works out which square was clicked,
+// and when a tile or highlight changes only that square's rectangle is repainted.
+public class BoardComponent extends JComponent {
+    private static final int N = GameEngine.BOARD_SIZE;
+    private static final Color HIGHLIGHT = new Color(19, 68, 70); // Dark green (same as Menu)
+    private static final int HIGHLIGHT_WIDTH = 4;
+    private static final Color[] BONUS_COLORS = { // Only used if board.png is missing
+        null, new Color(173, 216, 230), new Color(30, 144, 255), new Color(255, 182, 193), new Color(220, 20, 60)
+    };
+
+    // Called with the square that was clicked
+    public interface SquareListener {
+        void squareClicked(int row, int col);
+    }
+
+    private final ScaledBackground background = new ScaledBackground("board.png"); // Image of the board (bonuses included)
+    private final boolean[] highlighted = new boolean[GameEngine.SQUARES]; // What is currently drawn for each square
+    private final boolean[] tinted = new boolean[GameEngine.SQUARES]; // Squares covered by the overlay
+    private Color tint; // Colour of the overlay (see setOverlay)
+    private int badgeSquare = -1; // Square whose corner shows the badge (-1 for none)
+    private String badge;
+    private final int cellSize;
+    private BoardView engine;
+    private boolean showHighlights = false;
+
+    public BoardComponent(BoardView engine, int cellSize, SquareListener listener) {
+        this.engine = engine;
+        this.cellSize = cellSize;
+        setOpaque(false);
+        setPreferredSize(new Dimension(cellSize * N, cellSize * N));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) { // Turns the click position into a square
+                int row = e.getY() / cellSize, col = e.getX() / cellSize;
+                if (row >= 0 && row < N && col >= 0 && col < N) listener.squareClicked(row, col);
+            }
+        });
+    }
+
+    // Shows a different game (repaints everything)
+    public void setEngine(BoardView engine) {
+        this.engine = engine;
+        refreshHighlights();
+        repaint();
+    }
+
+    // Shows a newer state of the same game, repainting only the squares whose tile or highlight changed
+    public void updateEngine(BoardView next) {
+        BoardView previous = engine;
+        engine = next;
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) {
+                if (previous.letterAt(row, col) != next.letterAt(row, col) || previous.isBlank(row, col) != next.isBlank(row, col)) {
+                    repaintSquare(row, col);
+                }
+            }
+        }
+        refreshHighlights();
+    }
+
+    // Repaints a single square (after a tile goes on or comes off it)
+    public void repaintSquare(int row, int col) {
+        repaint(col * cellSize, row * cellSize, cellSize, cellSize);
+    }
+
+    // Turns the valid square highlights on or off
+    public void setShowHighlights(boolean show) {
+        showHighlights = show;
+        refreshHighlights();
+    }
+
+    // Tints some squares (e.g. the tiles being placed) and writes a short badge in the corner of the last one
+    // Only squares that were or are now covered get repainted
+    public void setOverlay(int[] squares, Color tint, String badge) {
+        clearOverlay();
+        this.tint = tint;
+        this.badge = badge;
+        for (int square : squares) {
+            tinted[square] = true;
+            repaintSquare(square / N, square % N);
+        }
+        badgeSquare = squares.length > 0 && badge != null ? squares[squares.length - 1] : -1;
+    }
+
+    // Takes the overlay off
+    public void clearOverlay() {
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            if (tinted[square]) {
+                tinted[square] = false;
+                repaintSquare(square / N, square % N);
+            }
+        }
+        badgeSquare = -1;
+    }
+
+    // Compares the highlights with the engine's valid squares and repaints only the squares that changed
+    public void refreshHighlights() {
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            boolean wanted = showHighlights && engine.isValidSpot(square / N, square % N);
+            if (wanted != highlighted[square]) {
+                highlighted[square] = wanted;
+                repaintSquare(square / N, square % N);
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = Metrics.BOARD_PAINT.start();
+        int size = cellSize * N;
+        background.paint(g, this, size, size);
+        boolean fallback = ScaledBackground.isMissing("board.png"); // paint above has already tried to read it
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, size, size);
+        int firstRow = Math.max(clip.y / cellSize, 0), lastRow = Math.min((clip.y + clip.height - 1) / cellSize, N - 1);
+        int firstCol = Math.max(clip.x / cellSize, 0), lastCol = Math.min((clip.x + clip.width - 1) / cellSize, N - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) { // Only the squares inside the area being repainted
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintSquare(g, row, col, fallback);
+            }
+        }
+        Metrics.BOARD_PAINT.stop(start, (lastRow - firstRow + 1) * (lastCol - firstCol + 1)); // Value is squares painted
+    }
+
+    // Draws one square: bonus (if there's no board picture), tile and highlight
+    private void paintSquare(Graphics g, int row, int col, boolean fallback) {
+        int x = col * cellSize, y = row * cellSize, square = row * N + col;
+        byte bonus = GameEngine.bonusAt(square);
+        if (fallback && bonus != GameEngine.NONE) {
+            g.setColor(BONUS_COLORS[bonus]);
+            g.fillRect(x + 1, y + 1, cellSize - 2, cellSize - 2);
+        }
+
+        char c = engine.letterAt(row, col);
+        if (c != GameEngine.EMPTY) {
+            boolean blank = engine.isBlank(row, col);
+            ImageIcon icon = TileImages.icon(blank ? GameEngine.BLANK : c, cellSize);
+            if (icon != null) icon.paintIcon(this, g, x, y);
+            if (blank && c != GameEngine.BLANK || icon == null) { // Shows the letter a blank stands for
+                g.setColor(Color.DARK_GRAY);
+                g.setFont(g.getFont().deriveFont(Font.BOLD, cellSize / 3f));
+                g.drawString(String.valueOf(c), x + cellSize / 10, y + cellSize / 3);
+            }
+        }
+
+        if (tinted[square]) {
+            g.setColor(tint);
+            g.fillRect(x, y, cellSize, cellSize);
+            if (square == badgeSquare) {
+                g.setFont(g.getFont().deriveFont(Font.BOLD, cellSize / 4f));
+                FontMetrics metrics = g.getFontMetrics();
+                int w = metrics.stringWidth(badge) + 6, h = metrics.getHeight();
+                g.setColor(Color.DARK_GRAY);
+                g.fillRoundRect(x + cellSize - w, y + cellSize - h, w, h, 8, 8);
+                g.setColor(Color.WHITE);
+                g.drawString(badge, x + cellSize - w + 3, y + cellSize - metrics.getDescent());
+            }
+        }
+
+        if (highlighted[square]) {
+            g.setColor(HIGHLIGHT);
+            for (int i = 0; i < HIGHLIGHT_WIDTH; i++) g.drawRect(x + i, y + i, cellSize - 1 - 2 * i, cellSize - 1 - 2 * i);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package FPT; // The folder containing all the other files in the project
+
+// What BoardComponent needs to draw a board: a local GameEngine, or a game played on a GameServer (GameClient.RemoteGame)
+public interface BoardView {
+    char letterAt(int row, int col); // EMPTY if there is no tile
+
+    boolean isBlank(int row, int col);
+
+    boolean isValidSpot(int row, int col); // Whether the next tile can go here (highlighted when highlights are on)
+}
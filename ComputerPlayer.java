@@ -0,0 +1,64 @@
+package FPT; // The folder containing all the other files in the project
+
+// A computer opponent that can sit in any seat instead of a human
+// It lists every legal move for its rack and plays the one its evaluator rates highest (the most points by default)
+// A simulating computer plays out its best few moves against random replies instead (see MonteCarloEvaluator), and
+// takes at most its time budget for each move.
+public class ComputerPlayer {
+    static final int SIMULATED_MOVES = 8; // Best moves by equity that get simulated
+    static final int ROLLOUTS = 200; // Rollouts per move, if the budget lasts that long
+
+    private final MoveGenerator generator;
+    private final MoveEvaluator evaluator;
+    private final MonteCarloEvaluator simulator; // null unless this computer simulates
+    private final long budgetMillis; // Time allowed for each simulated move
+
+    public ComputerPlayer(Lexicon lexicon) {
+        this(lexicon, MoveEvaluator.SCORE);
+    }
+
+    public ComputerPlayer(Lexicon lexicon, MoveEvaluator evaluator) {
+        this.generator = new MoveGenerator(lexicon);
+        this.evaluator = evaluator;
+        this.simulator = null;
+        this.budgetMillis = 0;
+    }
+
+    // A computer that picks its moves by simulating them, within budgetMillis a move
+    public ComputerPlayer(Lexicon lexicon, MonteCarloEvaluator simulator, long budgetMillis) {
+        this.generator = new MoveGenerator(lexicon);
+        this.evaluator = MoveEvaluator.EQUITY; // Only for picking which moves to simulate
+        this.simulator = simulator;
+        this.budgetMillis = budgetMillis;
+    }
+
+    // Picks the move to play for the current player (null if there is nothing to play)
+    public Move chooseMove(GameEngine engine) {
+        if (simulator != null) { // Seeded by the position, so the same position always gets the same rollouts
+            return simulator.chooseMove(engine, SIMULATED_MOVES, ROLLOUTS, budgetMillis, engine.positionHash());
+        }
+        if (evaluator == MoveEvaluator.SCORE) return generator.best(engine);
+        char[] rack = new char[GameEngine.RACK_SIZE];
+        for (int i = 0; i < rack.length; i++) rack[i] = engine.rackSlot(engine.currentPlayer(), i);
+        Move best = null;
+        double bestValue = 0;
+        for (Move move : generator.generate(engine, rack)) {
+            double value = evaluator.evaluate(move, rack);
+            if (best == null || value > bestValue) {
+                best = move;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    // Plays the current player's turn, returns the move made (null if they had to pass)
+    public Move takeTurn(GameEngine engine) {
+        Move move = chooseMove(engine);
+        if (move == null || engine.playMove(move) < 0) {
+            engine.pass();
+            return null;
+        }
+        return move;
+    }
+}
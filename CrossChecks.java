@@ -0,0 +1,188 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+
+// For every empty square, the letters that would make a valid word in the other direction (one bit per letter)
+// and the points of the tiles that word would include. across[] is used when a word is laid across through the square
+// (so it is limited by the tiles above and below), down[] when it is laid down (limited by the tiles left and right).
+// A score of NO_CROSS means there are no tiles touching that way, so any letter is fine and no cross-word is made.
+// Placing a tile only changes the squares at the two ends of the runs through it, so only those are recalculated,
+// and every change is logged so a turn can be rolled back.
+final class CrossChecks {
+    static final int ALL_LETTERS = (1 << 26) - 1;
+    static final int NO_CROSS = -1;
+    private static final int N = GameEngine.BOARD_SIZE;
+
+    final int[] across = new int[GameEngine.SQUARES];
+    final int[] down = new int[GameEngine.SQUARES];
+    final int[] acrossScore = new int[GameEngine.SQUARES];
+    final int[] downScore = new int[GameEngine.SQUARES];
+
+    private final Lexicon lexicon;
+    private int[] log = new int[64]; // (square * 2 + direction, old mask, old score) for every change this turn
+    private int logSize = 0;
+
+    CrossChecks(Lexicon lexicon) {
+        this.lexicon = lexicon;
+        clear();
+    }
+
+    // Rough heap size (see GameEngine.estimatedBytes)
+    long estimatedBytes() {
+        return 32 + 4 * GameEngine.arrayBytes(GameEngine.SQUARES, 4) + GameEngine.arrayBytes(log.length, 4);
+    }
+
+    // Makes this the same as other (undo log included)
+    void copyFrom(CrossChecks other) {
+        System.arraycopy(other.across, 0, across, 0, GameEngine.SQUARES);
+        System.arraycopy(other.down, 0, down, 0, GameEngine.SQUARES);
+        System.arraycopy(other.acrossScore, 0, acrossScore, 0, GameEngine.SQUARES);
+        System.arraycopy(other.downScore, 0, downScore, 0, GameEngine.SQUARES);
+        log = other.log.clone();
+        logSize = other.logSize;
+    }
+
+    // Empty board: everything is allowed everywhere
+    void clear() {
+        Arrays.fill(across, ALL_LETTERS);
+        Arrays.fill(down, ALL_LETTERS);
+        Arrays.fill(acrossScore, NO_CROSS);
+        Arrays.fill(downScore, NO_CROSS);
+        logSize = 0;
+    }
+
+    // Works everything out from scratch (for boards that weren't built up one tile at a time)
+    void computeAll(char[] board, boolean[] blanks) {
+        clear();
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            if (board[square] != GameEngine.EMPTY) continue;
+            compute(board, blanks, square, N);
+            compute(board, blanks, square, 1);
+        }
+        logSize = 0;
+    }
+
+    // Updates the squares whose cross-words changed because a tile went down on (or a blank got a letter at) square
+    void tilePlaced(char[] board, boolean[] blanks, int square) {
+        int top = square, bottom = square; // Ends of the run going down through the square
+        while (top >= N && board[top - N] != GameEngine.EMPTY) top -= N;
+        while (bottom < GameEngine.SQUARES - N && board[bottom + N] != GameEngine.EMPTY) bottom += N;
+        if (top >= N) compute(board, blanks, top - N, N);
+        if (bottom < GameEngine.SQUARES - N) compute(board, blanks, bottom + N, N);
+
+        int left = square, right = square; // Ends of the run going across through the square
+        while (left % N > 0 && board[left - 1] != GameEngine.EMPTY) left--;
+        while (right % N < N - 1 && board[right + 1] != GameEngine.EMPTY) right++;
+        if (left % N > 0) compute(board, blanks, left - 1, 1);
+        if (right % N < N - 1) compute(board, blanks, right + 1, 1);
+    }
+
+    // Puts back every change since the last commit (newest first)
+    void rollback() {
+        while (logSize > 0) {
+            logSize -= 3;
+            set(log[logSize], log[logSize + 1], log[logSize + 2]);
+        }
+    }
+
+    // Every change since the last commit as (key, old mask, old score, new mask, new score), oldest first
+    // Lets a committed turn be taken back (undo) or put back (redo) later without working anything out again
+    int[] changes() {
+        int[] changes = new int[logSize / 3 * 5];
+        for (int i = 0, c = 0; i < logSize; i += 3, c += 5) {
+            int key = log[i], square = key >> 1;
+            changes[c] = key;
+            changes[c + 1] = log[i + 1];
+            changes[c + 2] = log[i + 2];
+            changes[c + 3] = (key & 1) == 0 ? across[square] : down[square];
+            changes[c + 4] = (key & 1) == 0 ? acrossScore[square] : downScore[square];
+        }
+        return changes;
+    }
+
+    // Goes back to before a committed turn's changes (newest first, so each square ends up with its oldest value)
+    void undo(int[] changes) {
+        for (int c = changes.length - 5; c >= 0; c -= 5) set(changes[c], changes[c + 1], changes[c + 2]);
+    }
+
+    // Applies a committed turn's changes again
+    void redo(int[] changes) {
+        for (int c = 0; c < changes.length; c += 5) set(changes[c], changes[c + 3], changes[c + 4]);
+    }
+
+    private void set(int key, int mask, int points) {
+        int square = key >> 1;
+        if ((key & 1) == 0) {
+            across[square] = mask;
+            acrossScore[square] = points;
+        } else {
+            down[square] = mask;
+            downScore[square] = points;
+        }
+    }
+
+    // Keeps every change made this turn
+    void commit() {
+        logSize = 0;
+    }
+
+    // Letters allowed on an empty square (step N = the cross-word runs down, so this is the across mask)
+    private void compute(char[] board, boolean[] blanks, int square, int step) {
+        boolean isAcross = step == N;
+        remember(square, isAcross);
+
+        int start = square, end = square;
+        while (hasTileBefore(board, start, step)) start -= step;
+        while (hasTileAfter(board, end, step)) end += step;
+        int mask = ALL_LETTERS, points = NO_CROSS;
+        if (start != square || end != square) {
+            points = 0;
+            int node = Lexicon.ROOT;
+            for (int s = start; s < square && node != Lexicon.NONE; s += step) {
+                node = lexicon.child(node, board[s]);
+            }
+            for (int s = start; s <= end; s += step) {
+                if (s != square && !blanks[s]) points += GameEngine.letterValue(board[s]);
+            }
+
+            mask = 0;
+            if (node != Lexicon.NONE) {
+                for (int m = lexicon.letters(node); m != 0; m &= m - 1) {
+                    int bit = Integer.numberOfTrailingZeros(m);
+                    int next = lexicon.child(node, (char) ('A' + bit));
+                    for (int s = square + step; s <= end && next != Lexicon.NONE; s += step) {
+                        next = lexicon.child(next, board[s]);
+                    }
+                    if (next != Lexicon.NONE && lexicon.isTerminal(next)) mask |= 1 << bit;
+                }
+            }
+        }
+
+        if (isAcross) {
+            across[square] = mask;
+            acrossScore[square] = points;
+        } else {
+            down[square] = mask;
+            downScore[square] = points;
+        }
+    }
+
+    // Logs the old value of a square before it changes
+    private void remember(int square, boolean isAcross) {
+        if (logSize + 3 > log.length) log = Arrays.copyOf(log, log.length * 2);
+        log[logSize++] = square * 2 + (isAcross ? 0 : 1);
+        log[logSize++] = isAcross ? across[square] : down[square];
+        log[logSize++] = isAcross ? acrossScore[square] : downScore[square];
+    }
+
+    private static boolean hasTileBefore(char[] board, int square, int step) {
+        if (step == 1 ? square % N == 0 : square < N) return false;
+        return board[square - step] != GameEngine.EMPTY;
+    }
+
+    private static boolean hasTileAfter(char[] board, int square, int step) {
+        if (step == 1 ? square % N == N - 1 : square >= GameEngine.SQUARES - N) return false;
+        return board[square + step] != GameEngine.EMPTY;
+    }
+}
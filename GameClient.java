@@ -0,0 +1,401 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// A connection to a GameServer (see Protocol for the messages)
+// Sending is done straight from the calling thread; a background thread reads what the server sends, keeps the latest
+// RemoteGame and passes it to the listener (on that thread, so a Swing client has to hand it over to the EDT).
+//
+// java FPT.GameClient bots <host> <port> <games> [players]   plays that many bot games against a server and reports
+//                                                             games per second and move latency
+public class GameClient implements Closeable {
+    // Told about everything the server sends
+    public interface Listener {
+        void welcome(int gameId, int seat, int players);
+
+        void stateChanged(RemoteGame game); // A new snapshot: the old one isn't changed, so it's safe to keep using
+
+        void error(String message);
+
+        void disconnected();
+    }
+
+    // The game as this client last heard it (a snapshot: every STATE makes a new one)
+    public static final class RemoteGame implements BoardView {
+        public final int gameId, seat, numPlayers;
+        private final char[] board;
+        private final boolean[] blanks;
+        private final boolean[] validSpots = new boolean[GameEngine.SQUARES];
+        private final char[] rack = new char[GameEngine.RACK_SIZE];
+        private final int[] scores;
+        private int flags, currentPlayer = 1, round = 1, bagSize;
+
+        RemoteGame(int gameId, int seat, int numPlayers) {
+            this.gameId = gameId;
+            this.seat = seat;
+            this.numPlayers = numPlayers;
+            this.board = new char[GameEngine.SQUARES];
+            this.blanks = new boolean[GameEngine.SQUARES];
+            this.scores = new int[numPlayers];
+        }
+
+        private RemoteGame(RemoteGame previous) {
+            this.gameId = previous.gameId;
+            this.seat = previous.seat;
+            this.numPlayers = previous.numPlayers;
+            this.board = previous.board.clone(); // Only the squares that changed come over the network
+            this.blanks = previous.blanks.clone();
+            this.scores = new int[numPlayers];
+        }
+
+        // The next snapshot: this one with a STATE payload applied
+        RemoteGame apply(ByteBuffer payload) {
+            RemoteGame next = new RemoteGame(this);
+            next.flags = payload.get();
+            next.currentPlayer = payload.get();
+            next.round = payload.getShort();
+            next.bagSize = payload.get() & 0xFF;
+            int players = payload.get();
+            for (int i = 0; i < players; i++) next.scores[i] = payload.getShort();
+            for (int i = 0; i < GameEngine.RACK_SIZE; i++) next.rack[i] = (char) (payload.get() & 0xFF);
+            for (int word = 0; word < 4; word++) {
+                long bits = payload.getLong();
+                for (int bit = 0; bit < 64 && word * 64 + bit < GameEngine.SQUARES; bit++) {
+                    next.validSpots[word * 64 + bit] = (bits & (1L << bit)) != 0;
+                }
+            }
+            int changed = payload.get() & 0xFF;
+            for (int i = 0; i < changed; i++) {
+                int square = payload.get() & 0xFF;
+                next.board[square] = (char) (payload.get() & 0xFF);
+                next.blanks[square] = payload.get() != 0;
+            }
+            return next;
+        }
+
+        @Override public char letterAt(int row, int col) { return board[row * GameEngine.BOARD_SIZE + col]; }
+        @Override public boolean isBlank(int row, int col) { return blanks[row * GameEngine.BOARD_SIZE + col]; }
+        @Override public boolean isValidSpot(int row, int col) { return validSpots[row * GameEngine.BOARD_SIZE + col]; }
+        public char letterAt(int square) { return board[square]; }
+        public boolean isBlank(int square) { return blanks[square]; }
+        public char rackSlot(int slot) { return rack[slot]; }
+        public int score(int player) { return scores[player - 1]; }
+        public int currentPlayer() { return currentPlayer; }
+        public int round() { return round; }
+        public int bagSize() { return bagSize; }
+        public boolean isMyTurn() { return currentPlayer == seat && isStarted() && !isGameOver(); }
+        public boolean isStarted() { return (flags & Protocol.STARTED) != 0; }
+        public boolean isGameOver() { return (flags & Protocol.GAME_OVER) != 0; }
+    }
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final Listener listener;
+    private volatile RemoteGame game; // Latest snapshot (null until the server has welcomed us)
+
+    private GameClient(Socket socket, Listener listener) throws IOException {
+        this.socket = socket;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.listener = listener;
+    }
+
+    // Connects and starts listening (nothing happens until join is called)
+    public static GameClient connect(String host, int port, Listener listener) throws IOException {
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true); // Small messages, sent straight away
+        GameClient client = new GameClient(socket, listener);
+        Thread reader = new Thread(client::readLoop, "game-client");
+        reader.setDaemon(true);
+        reader.start();
+        return client;
+    }
+
+    public RemoteGame game() {
+        return game;
+    }
+
+    // Starts a new game for players players (gameId 0) or joins an existing one
+    public void join(int gameId, int players) throws IOException { send(Protocol.join(gameId, players)); }
+    public void place(char letter, int square) throws IOException { send(Protocol.frame(Protocol.PLACE, (byte) square, (byte) letter)); }
+    public void reset() throws IOException { send(Protocol.frame(Protocol.RESET)); }
+    public void submit() throws IOException { send(Protocol.frame(Protocol.SUBMIT)); }
+    public void pass() throws IOException { send(Protocol.frame(Protocol.PASS)); }
+
+    private synchronized void send(ByteBuffer frame) throws IOException {
+        out.write(frame.array(), frame.position(), frame.remaining());
+        out.flush();
+    }
+
+    // Reads frames until the connection closes
+    private void readLoop() {
+        byte[] frame = new byte[Protocol.MAX_FRAME];
+        try {
+            while (true) {
+                int length = in.readUnsignedShort();
+                if (length == 0 || length > Protocol.MAX_FRAME) throw new IOException("Bad frame length " + length);
+                in.readFully(frame, 0, length);
+                ByteBuffer payload = ByteBuffer.wrap(frame, 1, length - 1);
+                switch (frame[0]) {
+                    case Protocol.WELCOME -> {
+                        int gameId = payload.getInt(), seat = payload.get(), players = payload.get();
+                        game = new RemoteGame(gameId, seat, players);
+                        listener.welcome(gameId, seat, players);
+                    }
+                    case Protocol.STATE -> {
+                        if (game == null) throw new IOException("State before welcome");
+                        game = game.apply(payload);
+                        listener.stateChanged(game);
+                    }
+                    case Protocol.ERROR -> listener.error(Protocol.errorText(payload));
+                    default -> throw new IOException("Unknown message type " + frame[0]);
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+            listener.disconnected();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    // A computer player on the other end of a connection (used for loopback load tests)
+    // It finds its move with a MoveGenerator on its own copy of the board, sends every tile and a SUBMIT in one go,
+    // and times how long the server takes to hand the turn on.
+    static final class Bot implements Listener {
+        private static final int MAX_ROUNDS = 100; // Everyone passing forever would never empty the bag
+
+        private final MoveGenerator generator;
+        private final CountDownLatch finished;
+        private final Queue<Long> latencies;
+        private final ExecutorService thinker; // Moves are found here, not on the reader thread
+        private final AtomicInteger gameIdOut;
+        private final AtomicInteger errors; // Every ERROR the server sends, for the report
+        private final AtomicBoolean submitting = new AtomicBoolean(); // Our tiles and SUBMIT are waiting for an answer
+        private GameClient client;
+        private volatile RemoteGame last; // The game as it was when this bot stopped
+        private volatile long sentAt = 0; // When our last turn was sent (0 once the server has moved on)
+        private int lastRound = -1, lastPlayer = -1; // Only used on the reader thread
+        private boolean started = false;
+        private boolean done = false;
+
+        Bot(Lexicon lexicon, CountDownLatch finished, Queue<Long> latencies, ExecutorService thinker, AtomicInteger gameIdOut,
+            AtomicInteger errors) {
+            this.generator = new MoveGenerator(lexicon);
+            this.finished = finished;
+            this.latencies = latencies;
+            this.thinker = thinker;
+            this.gameIdOut = gameIdOut;
+            this.errors = errors;
+        }
+
+        @Override
+        public void welcome(int gameId, int seat, int players) {
+            if (gameIdOut != null) {
+                synchronized (gameIdOut) {
+                    gameIdOut.set(gameId);
+                    gameIdOut.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void stateChanged(RemoteGame game) {
+            if (game.currentPlayer() == lastPlayer && game.round() == lastRound && game.isStarted() == started) return; // Same turn
+            started = game.isStarted();
+            lastPlayer = game.currentPlayer();
+            lastRound = game.round();
+            submitting.set(false); // The turn has moved on, so any later error isn't about our submit
+            if (sentAt != 0) { // Turn has moved on since our submit
+                latencies.add(System.nanoTime() - sentAt);
+                sentAt = 0;
+            }
+            if (game.isGameOver() || game.round() > MAX_ROUNDS) {
+                last = game;
+                finish();
+                return;
+            }
+            if (game.isMyTurn()) thinker.execute(() -> play(game));
+        }
+
+        private synchronized void play(RemoteGame game) {
+            char[] board = new char[GameEngine.SQUARES];
+            boolean[] blanks = new boolean[GameEngine.SQUARES];
+            for (int square = 0; square < GameEngine.SQUARES; square++) {
+                board[square] = game.letterAt(square);
+                blanks[square] = game.isBlank(square);
+            }
+            char[] rack = new char[GameEngine.RACK_SIZE];
+            for (int i = 0; i < rack.length; i++) rack[i] = game.rackSlot(i);
+            Move best = null;
+            for (Move move : generator.generate(board, blanks, rack)) {
+                if (best == null || move.score > best.score) best = move;
+            }
+            try {
+                sentAt = System.nanoTime();
+                if (best == null) {
+                    client.pass();
+                    return;
+                }
+                submitting.set(true);
+                for (int i : placementOrder(best, board)) client.place(best.rackLetter(i), best.square(i));
+                client.submit();
+            } catch (IOException e) {
+                finish();
+            }
+        }
+
+        // Only an error about our own tiles or SUBMIT means our turn didn't go through. Anything else (not our turn, a
+        // refused pass...) is just reported: answering it with a pass would get another error, and so on forever.
+        @Override
+        public void error(String message) {
+            errors.incrementAndGet();
+            System.err.println("Server: " + message);
+            if (!submitting.getAndSet(false)) return; // Only the first error of a turn gives it up
+            thinker.execute(() -> { // Turn didn't go through, so give it up rather than wait forever
+                try {
+                    client.pass();
+                } catch (IOException e) {
+                    finish();
+                }
+            });
+        }
+
+        @Override
+        public void disconnected() {
+            finish();
+        }
+
+        private synchronized void finish() {
+            if (done) return;
+            done = true;
+            finished.countDown();
+        }
+    }
+
+    // Order to put a move's tiles down so each one goes on a square the server allows: first a tile next to one
+    // already on the board (or the middle square), then outwards to the right and then to the left
+    static List<Integer> placementOrder(Move move, char[] board) {
+        int length = move.word.length(), first = -1;
+        boolean empty = true;
+        for (char c : board) empty &= c == GameEngine.EMPTY;
+        for (int i = 0; i < length && first < 0; i++) {
+            if (!move.isNewTile(i)) continue;
+            int square = move.square(i), row = square / GameEngine.BOARD_SIZE, col = square % GameEngine.BOARD_SIZE;
+            boolean anchor = empty ? square == GameEngine.CENTER
+                    : row > 0 && board[square - GameEngine.BOARD_SIZE] != GameEngine.EMPTY
+                    || row < GameEngine.BOARD_SIZE - 1 && board[square + GameEngine.BOARD_SIZE] != GameEngine.EMPTY
+                    || col > 0 && board[square - 1] != GameEngine.EMPTY
+                    || col < GameEngine.BOARD_SIZE - 1 && board[square + 1] != GameEngine.EMPTY;
+            if (anchor) first = i;
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = first; i < length; i++) if (move.isNewTile(i)) order.add(i);
+        for (int i = first - 1; i >= 0; i--) if (move.isNewTile(i)) order.add(i);
+        return order;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4 || !args[0].equals("bots")) {
+            System.out.println("Usage: java FPT.GameClient bots <host> <port> <games> [players]");
+            return;
+        }
+        String host = args[1];
+        int port = Integer.parseInt(args[2]), games = Integer.parseInt(args[3]);
+        int players = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        BotReport report = runBots(SharedDictionary.get(), host, port, games, players, Long.MAX_VALUE);
+        System.out.println(report);
+    }
+
+    // What a bot run measured
+    static final class BotReport {
+        final int games;
+        final double seconds;
+        final long[] latencies; // Sorted, in nanoseconds
+        final RemoteGame[][] finals; // [game][seat - 1]: how each seat last saw its game
+        final int errors; // ERRORs the server sent, all games together
+        final boolean timedOut; // Some bots were still playing when the time ran out
+
+        BotReport(int games, double seconds, long[] latencies, RemoteGame[][] finals, int errors, boolean timedOut) {
+            this.games = games;
+            this.seconds = seconds;
+            this.latencies = latencies;
+            this.finals = finals;
+            this.errors = errors;
+            this.timedOut = timedOut;
+        }
+
+        long percentile(double p) {
+            return latencies.length == 0 ? 0 : latencies[Math.min((int) (p * latencies.length), latencies.length - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games in %.2f s (%.1f games/s), %d turns, submit latency p50 %.2f ms, p99 %.2f ms, %d errors%s",
+                    games, seconds, games / seconds, latencies.length, percentile(0.5) / 1e6, percentile(0.99) / 1e6, errors,
+                    timedOut ? " (timed out)" : "");
+        }
+    }
+
+    // Plays games bot-only games at once against a server and waits (up to timeoutMillis) for them all to finish
+    static BotReport runBots(Lexicon lexicon, String host, int port, int games, int players, long timeoutMillis) throws Exception {
+        CountDownLatch finished = new CountDownLatch(games * players);
+        Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+        Bot[][] bots = new Bot[games][players];
+        boolean timedOut;
+        ExecutorService thinker = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<GameClient> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int g = 0; g < games; g++) {
+                AtomicInteger gameId = new AtomicInteger();
+                for (int seat = 0; seat < players; seat++) {
+                    Bot bot = new Bot(lexicon, finished, latencies, thinker, seat == 0 ? gameId : null, errors);
+                    bots[g][seat] = bot;
+                    GameClient client = connect(host, port, bot);
+                    bot.client = client;
+                    clients.add(client);
+                    if (seat == 0) {
+                        synchronized (gameId) {
+                            client.join(0, players);
+                            while (gameId.get() == 0) gameId.wait();
+                        }
+                    } else {
+                        client.join(gameId.get(), players);
+                    }
+                }
+            }
+            timedOut = !finished.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            thinker.shutdownNow();
+            for (GameClient client : clients) client.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        RemoteGame[][] finals = new RemoteGame[games][players];
+        for (int g = 0; g < games; g++) {
+            for (int seat = 0; seat < players; seat++) {
+                Bot bot = bots[g][seat];
+                finals[g][seat] = bot.last != null ? bot.last : bot.client == null ? null : bot.client.game();
+            }
+        }
+        return new BotReport(games, seconds, sorted, finals, errors.get(), timedOut);
+    }
+}
@@ -0,0 +1,784 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+
+// Headless game state and rules (no Swing or AWT in here, so it can run without a window)
+// The board is a flat char array indexed by square = row * 15 + col, and an empty square holds EMPTY
+public class GameEngine implements BoardView {
+    public static final int BOARD_SIZE = 15; // 15 x 15 board
+    public static final int SQUARES = BOARD_SIZE * BOARD_SIZE; // 225 squares in total
+    public static final int RACK_SIZE = 7; // Number of tiles each player gets
+    public static final int CENTER = 7 * BOARD_SIZE + 7; // The first word has to go through the middle square
+    public static final char EMPTY = 0; // Value of a square (or rack slot) with no tile on it
+    public static final char BLANK = '*'; // The blank tile
+
+    // Types of bonuses available (stored as bytes so the grid is one small primitive array)
+    public static final byte NONE = 0;
+    public static final byte DOUBLE_LETTER = 1;
+    public static final byte TRIPLE_LETTER = 2;
+    public static final byte DOUBLE_WORD = 3;
+    public static final byte TRIPLE_WORD = 4;
+
+    // Letters in the bag and how many of each there are (according to the official rules of scrabble)
+    static final char[] LETTERS = {'A','B','C','D','E','F','G','H','I','J','K','L','M','N','O','P','Q','R','S','T','U','V','W','X','Y','Z','*'};
+    static final int[] COUNTS = {9,2,2,4,12,2,3,2,9,1,1,4,2,6,8,2,1,6,4,6,4,2,2,1,2,1,2};
+    // How many points each letter gets you, in the same order as LETTERS
+    static final int[] VALUES = {1,3,3,2,1,4,2,4,1,8,5,1,3,1,1,3,10,1,1,1,1,4,4,8,4,10,0};
+    // Bonus of every square, shared by every game since it never changes
+    static final byte[] BONUS = buildBonusGrid();
+
+    private final char[] board = new char[SQUARES]; // Letter on each square (BLANK until a blank has been given a letter)
+    private final boolean[] blanks = new boolean[SQUARES]; // Squares holding a blank tile (worth 0 whatever letter it stands for)
+    private final Bitboard occupied = new Bitboard(); // Squares that have a tile on them
+    private final Bitboard placedThisTurn = new Bitboard(); // Squares that got a tile this turn
+    private final Bitboard anchors = new Bitboard(); // Empty squares next to an earlier tile (a turn has to use one)
+    private final Bitboard validSpots = new Bitboard(); // Keeps track of which squares the next tile can go on
+
+    private final long seed; // Seed the bag was made with (the same seed always deals the same game)
+    private final LetterBag bag; // Tiles left to draw
+    private final char[][] racks; // Each player's rack, EMPTY where a slot has no tile
+    private final int[] scores; // Keeps track of all the players' scores
+    private long boardHash = 0; // Zobrist hash of every tile on the board, placed this turn included
+    private final long[] rackHashes; // Zobrist hash of each player's rack
+    private final int[] placed = new int[RACK_SIZE]; // Squares that got a tile this turn
+    private int placedCount = 0;
+    private final int[] spans = new int[2 * RACK_SIZE]; // Words made this turn (see span())
+    private final Run run = new Run(); // Reusable view of one word on the board, so checking words makes no Strings
+    private int blankVariants = 0; // Letters tried for blanks by the last validateWords (for Metrics)
+    private final List<TurnDelta> history = new ArrayList<>(); // What every finished turn changed, oldest first
+    private int historyPosition = 0; // Turns currently played (less than history.size() after an undo)
+    private TurnDelta turn; // Delta of the turn being finished (collects the tiles drawn)
+    private final char[] rackAtTurnStart = new char[RACK_SIZE]; // Copied when the first tile of a turn goes down
+
+    private final List<TurnListener> listeners = new ArrayList<>(2); // Told about every finished turn
+    private final Lexicon dictionary; // Dictionary (words.txt) to check if the word is valid
+    private final CrossChecks crossChecks; // Letters allowed on every empty square, kept up to date tile by tile
+    private final int numPlayers;
+    private int currentPlayer = 1; // Starts with player 1
+    private int round = 1; // Starting round
+    private boolean firstMove = true;
+
+    // Starts a new game with a random seed
+    public GameEngine(int numPlayers, Lexicon dictionary) {
+        this(numPlayers, dictionary, new Random());
+    }
+
+    // Starts a new game, seeded from the given Random
+    public GameEngine(int numPlayers, Lexicon dictionary, Random random) {
+        this(numPlayers, dictionary, random.nextLong());
+    }
+
+    // Starts a new game whose draws all come from seed
+    public GameEngine(int numPlayers, Lexicon dictionary, long seed) {
+        this.numPlayers = numPlayers;
+        this.dictionary = dictionary;
+        this.crossChecks = new CrossChecks(dictionary);
+        this.scores = new int[numPlayers];
+        this.racks = new char[numPlayers][RACK_SIZE];
+        this.rackHashes = new long[numPlayers];
+        this.seed = seed;
+        this.bag = new LetterBag(seed);
+        initializePlayerRacks();
+        updateAnchors(); // Only the middle square is available when the game begins
+        recalculateValidSpots();
+    }
+
+    // Copies a game as it is right now, tiles placed this turn included (listeners and undo history aren't copied)
+    private GameEngine(GameEngine other) {
+        this.numPlayers = other.numPlayers;
+        this.dictionary = other.dictionary;
+        this.crossChecks = new CrossChecks(dictionary);
+        crossChecks.copyFrom(other.crossChecks);
+        this.scores = other.scores.clone();
+        this.racks = new char[numPlayers][];
+        for (int i = 0; i < numPlayers; i++) racks[i] = other.racks[i].clone();
+        this.rackHashes = other.rackHashes.clone();
+        this.seed = other.seed;
+        this.bag = other.bag.copy();
+        System.arraycopy(other.board, 0, board, 0, SQUARES);
+        System.arraycopy(other.blanks, 0, blanks, 0, SQUARES);
+        occupied.copyFrom(other.occupied);
+        placedThisTurn.copyFrom(other.placedThisTurn);
+        anchors.copyFrom(other.anchors);
+        validSpots.copyFrom(other.validSpots);
+        System.arraycopy(other.placed, 0, placed, 0, RACK_SIZE);
+        System.arraycopy(other.rackAtTurnStart, 0, rackAtTurnStart, 0, RACK_SIZE);
+        this.placedCount = other.placedCount;
+        this.boardHash = other.boardHash;
+        this.currentPlayer = other.currentPlayer;
+        this.round = other.round;
+        this.firstMove = other.firstMove;
+    }
+
+    // An independent copy of the game, so it can be looked at on another thread while this one carries on
+    public GameEngine copy() {
+        return new GameEngine(this);
+    }
+
+    // Index of a letter in LETTERS/VALUES (the blank is the last one)
+    public static int letterIndex(char c) {
+        return c == BLANK ? 26 : c - 'A';
+    }
+
+    // How many points a letter is worth
+    public static int letterValue(char c) {
+        return VALUES[letterIndex(c)];
+    }
+
+    // Bonus of a square
+    public static byte bonusAt(int square) {
+        return BONUS[square];
+    }
+
+    // Method to assign bonus values to certain squares (according to the official rules)
+    private static byte[] buildBonusGrid() {
+        byte[] grid = new byte[SQUARES];
+        int[][] tripleWord = {{0,0},{0,7},{0,14},{7,0},{7,14},{14,0},{14,7},{14,14}};
+        int[][] doubleWord = {{1,1},{1,13},{2,2},{2,12},{3,3},{3,11},{4,4},{4,10},
+                              {10,4},{10,10},{11,3},{11,11},{12,2},{12,12},{13,1},{13,13}};
+        int[][] tripleLetter = {{1,5},{1,9},{5,1},{5,5},{5,9},{5,13},{9,1},{9,5},{9,9},{9,13},{13,5},{13,9}};
+        int[][] doubleLetter = {{0,3},{0,11},{2,6},{2,8},{3,0},{3,7},{3,14},{6,2},{6,6},{6,8},{6,12},{7,3},{7,11},
+                                {8,2},{8,6},{8,8},{8,12},{11,0},{11,7},{11,14},{12,6},{12,8},{14,3},{14,11}};
+        for (int[] p : tripleWord) grid[p[0] * BOARD_SIZE + p[1]] = TRIPLE_WORD;
+        for (int[] p : doubleWord) grid[p[0] * BOARD_SIZE + p[1]] = DOUBLE_WORD;
+        for (int[] p : tripleLetter) grid[p[0] * BOARD_SIZE + p[1]] = TRIPLE_LETTER;
+        for (int[] p : doubleLetter) grid[p[0] * BOARD_SIZE + p[1]] = DOUBLE_LETTER;
+        return grid;
+    }
+
+    // Method to set up each player's rack of letters
+    private void initializePlayerRacks() {
+        for (int player = 0; player < numPlayers; player++) {
+            for (int i = 0; i < RACK_SIZE && !bag.isEmpty(); i++) {
+                racks[player][i] = bag.draw();
+                rackHashes[player] += Zobrist.rackTile(racks[player][i]);
+            }
+        }
+    }
+
+    // Method to put a tile from the current player's rack on the board
+    public boolean placeTile(char letter, int square) {
+        if (!validSpots.get(square) || board[square] != EMPTY) return false;
+        char[] rack = racks[currentPlayer - 1];
+        int slot = -1;
+        for (int i = 0; i < RACK_SIZE; i++) {
+            if (rack[i] == letter) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot < 0) return false; // Player doesn't have that letter
+
+        if (placedCount == 0) System.arraycopy(rack, 0, rackAtTurnStart, 0, RACK_SIZE); // For undo, slots in order
+        rack[slot] = EMPTY;
+        rackHashes[currentPlayer - 1] -= Zobrist.rackTile(letter);
+        setSquare(square, letter, letter == BLANK);
+        placed[placedCount++] = square;
+        occupied.set(square);
+        placedThisTurn.set(square);
+        crossChecks.tilePlaced(board, blanks, square); // Only the squares at the ends of the new runs change
+        recalculateValidSpots(); // Next tile has to carry on the same line
+        return true;
+    }
+
+    // Plays a whole move for the current player (blanks get the letters the move gives them)
+    // Returns the points scored, or -1 (and nothing changes) if the move isn't legal here
+    public int playMove(Move move) {
+        if (placedCount > 0) resetPlacedTiles();
+        int remaining = move.tiles;
+        while (remaining != 0) { // Places tiles in whatever order keeps every one next to a tile already down
+            int before = remaining;
+            for (int m = remaining; m != 0; m &= m - 1) {
+                int i = Integer.numberOfTrailingZeros(m);
+                int square = move.square(i);
+                if (validSpots.get(square) && placeTile(move.rackLetter(i), square)) {
+                    if (move.isBlank(i)) {
+                        setSquare(square, move.word.charAt(i), true); // Gives a blank its letter
+                        crossChecks.tilePlaced(board, blanks, square);
+                    }
+                    remaining &= ~(1 << i);
+                }
+            }
+            if (remaining == before) break; // Nothing else could go down
+        }
+        if (remaining != 0 || !wordsAreValid()) {
+            resetPlacedTiles();
+            return -1;
+        }
+        return submit();
+    }
+
+    // Skips the current player's turn (for when there is nothing they can play)
+    public void pass() {
+        if (placedCount > 0) resetPlacedTiles();
+        beginTurn();
+        endTurn();
+        for (TurnListener listener : listeners) listener.passed(currentPlayer);
+        nextPlayer();
+    }
+
+    // Swaps tiles from the current player's rack for new ones from the bag, using up their turn
+    // Only allowed while the bag still holds a full rack; returns false (and nothing changes) otherwise,
+    // or if the rack doesn't have those tiles
+    public boolean exchange(String tiles) {
+        if (placedCount > 0) resetPlacedTiles();
+        if (tiles.isEmpty() || tiles.length() > RACK_SIZE || bag.size() < RACK_SIZE) return false;
+        char[] rack = racks[currentPlayer - 1];
+        char[] left = rack.clone();
+        int[] slots = new int[tiles.length()];
+        for (int i = 0; i < tiles.length(); i++) {
+            slots[i] = -1;
+            for (int slot = 0; slot < RACK_SIZE && slots[i] < 0; slot++) {
+                if (left[slot] == tiles.charAt(i)) slots[i] = slot;
+            }
+            if (slots[i] < 0) return false; // Player doesn't have that tile
+            left[slots[i]] = EMPTY;
+        }
+        beginTurn();
+        for (int slot : slots) { // New tiles are drawn before the old ones go back in (official rules)
+            rackHashes[currentPlayer - 1] -= Zobrist.rackTile(rack[slot]);
+            rack[slot] = drawTile();
+            rackHashes[currentPlayer - 1] += Zobrist.rackTile(rack[slot]);
+        }
+        for (int i = 0; i < tiles.length(); i++) bag.putBack(tiles.charAt(i));
+        turn.returned = tiles;
+        endTurn();
+        for (TurnListener listener : listeners) listener.exchanged(currentPlayer, tiles);
+        nextPlayer();
+        return true;
+    }
+
+    // Hands the turn to the next player (and starts a new round after the last one)
+    private void nextPlayer() {
+        currentPlayer = (currentPlayer % numPlayers) + 1;
+        if (currentPlayer == 1) round++;
+    }
+
+    // Method to restart turn (put all tiles back in the rack)
+    public void resetPlacedTiles() {
+        char[] rack = racks[currentPlayer - 1];
+        for (int i = 0; i < placedCount; i++) {
+            int square = placed[i];
+            for (int slot = 0; slot < RACK_SIZE; slot++) {
+                if (rack[slot] == EMPTY) {
+                    rack[slot] = blanks[square] ? BLANK : board[square]; // A blank goes back as a blank
+                    rackHashes[currentPlayer - 1] += Zobrist.rackTile(rack[slot]);
+                    break;
+                }
+            }
+            setSquare(square, EMPTY, false);
+            occupied.clear(square);
+        }
+        placedThisTurn.clearAll();
+        placedCount = 0;
+        crossChecks.rollback(); // Cross-checks go back to how they were at the start of the turn
+        recalculateValidSpots(); // Gets valid spots again (without the ones that became valid due to this turn)
+    }
+
+    // Method to validate the words made by the tiles placed this turn
+    // Any blanks placed this turn are given letters that make every word valid, and those letters stay on the board
+    public boolean validateWords() {
+        long start = Metrics.VALIDATE_WORDS.start();
+        clearBlankLetters(); // Lets the blanks be picked again from scratch
+        blankVariants = 0;
+        boolean valid = isLegalPlacement() && collectSpans() > 0 && assignBlanks();
+        if (!valid) clearBlankLetters();
+        for (int i = 0; i < placedCount; i++) { // Cross-checks next to a blank depend on the letter it was given
+            if (blanks[placed[i]]) crossChecks.tilePlaced(board, blanks, placed[i]);
+        }
+        if (start != 0) {
+            Metrics.VALIDATE_WORDS.stop(start, blankVariants);
+            Metrics.BLANK_VARIANTS.record(blankVariants);
+        }
+        return valid;
+    }
+
+    // Same checks as validateWords, but keeps the letters the blanks already have
+    private boolean wordsAreValid() {
+        if (!isLegalPlacement()) return false;
+        int count = collectSpans();
+        if (count == 0) return false;
+        for (int i = 0; i < count; i++) {
+            if (!dictionary.contains(run.set(spans[i]))) return false;
+        }
+        return true;
+    }
+
+    // Tries letters for the first unassigned blank, only the ones that can still make both of its words, then the next blank
+    private boolean assignBlanks() {
+        int square = -1;
+        for (int i = 0; i < placedCount && square < 0; i++) {
+            if (board[placed[i]] == BLANK) square = placed[i];
+        }
+        if (square < 0) return wordsAreValid(); // Every blank has a letter, so just check the words
+
+        int candidates = (1 << 26) - 1;
+        int across = spanThrough(square, 1);
+        int down = spanThrough(square, BOARD_SIZE);
+        if (across < 0 && down < 0) return false;
+        if (across >= 0) candidates &= dictionary.wildcardMask(run.set(across), (square - spanStart(across)) / spanStep(across));
+        if (down >= 0) candidates &= dictionary.wildcardMask(run.set(down), (square - spanStart(down)) / spanStep(down));
+
+        for (; candidates != 0; candidates &= candidates - 1) {
+            blankVariants++;
+            setSquare(square, (char) ('A' + Integer.numberOfTrailingZeros(candidates)), true);
+            if (assignBlanks()) return true;
+        }
+        setSquare(square, BLANK, true); // backtrack
+        return false;
+    }
+
+    // Turns every blank placed this turn back into an unassigned blank
+    private void clearBlankLetters() {
+        for (int i = 0; i < placedCount; i++) {
+            if (blanks[placed[i]]) setSquare(placed[i], BLANK, true);
+        }
+    }
+
+    // Method to submit the tiles placed this turn, returns the points they scored
+    public int submit() {
+        Move move = listeners.isEmpty() ? null : placedMove(); // Only worked out if someone wants it
+        int score = calculateScore();
+        scores[currentPlayer - 1] += score; // Adds this score to the player's own score
+        beginTurn();
+        turn.moved(board, blanks, placed, placedCount, score, crossChecks.changes());
+        turn.move = move;
+
+        refillRack(currentPlayer - 1, placedCount); // Refills player's used up slots
+        placedCount = 0;
+        placedThisTurn.clearAll();
+        crossChecks.commit();
+        firstMove = false;
+        updateAnchors();
+        endTurn();
+
+        for (TurnListener listener : listeners) listener.moved(currentPlayer, move, score);
+        nextPlayer();
+        recalculateValidSpots();
+        return score;
+    }
+
+    // The tiles placed this turn as a Move (main word, which tiles are new, which are blanks, points), null if none
+    public Move placedMove() {
+        if (placedCount == 0) return null;
+        int first = placed[0], step;
+        if (placedCount > 1) step = placed[1] / BOARD_SIZE == first / BOARD_SIZE ? 1 : BOARD_SIZE;
+        else step = spanThrough(first, 1) >= 0 || spanThrough(first, BOARD_SIZE) < 0 ? 1 : BOARD_SIZE; // A lone tile's word
+        int main = spanThrough(first, step);
+        if (main < 0) main = span(first, step, 1);
+        int start = spanStart(main), length = spanLength(main), tiles = 0, blankBits = 0;
+        char[] word = new char[length];
+        for (int i = 0, square = start; i < length; i++, square += step) {
+            word[i] = board[square];
+            if (placedThisTurn.get(square)) {
+                tiles |= 1 << i;
+                if (blanks[square]) blankBits |= 1 << i;
+            }
+        }
+        return new Move(start / BOARD_SIZE, start % BOARD_SIZE, step == 1, new String(word), tiles, blankBits, calculateScore());
+    }
+
+    // Every word the tiles placed this turn make, as they are on the board right now (blanks may not have letters yet)
+    public List<String> placedWords() {
+        int count = collectSpans();
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) words.add(run.set(spans[i]).toString());
+        return words;
+    }
+
+    // Keeps the unused tiles (in order) and draws a new letter for every tile used
+    private void refillRack(int player, int used) {
+        char[] rack = racks[player];
+        int size = 0;
+        for (int i = 0; i < RACK_SIZE; i++) {
+            if (rack[i] != EMPTY) rack[size++] = rack[i];
+        }
+        for (int i = 0; i < used && size < RACK_SIZE && !bag.isEmpty(); i++) {
+            rack[size] = drawTile();
+            rackHashes[player] += Zobrist.rackTile(rack[size++]);
+        }
+        while (size < RACK_SIZE) rack[size++] = EMPTY;
+    }
+
+    // Takes a tile from the bag, noting it down if a turn is being recorded
+    private char drawTile() {
+        char tile = bag.draw();
+        if (turn != null) turn.drew(tile);
+        return tile;
+    }
+
+    // Starts recording the turn the current player is finishing (rack as it was before any tile went down)
+    private void beginTurn() {
+        char[] rack = (placedCount > 0 ? rackAtTurnStart : racks[currentPlayer - 1]).clone();
+        long rackHash = rackHashes[currentPlayer - 1];
+        for (int i = 0; i < placedCount; i++) rackHash += Zobrist.rackTile(blanks[placed[i]] ? BLANK : board[placed[i]]);
+        turn = new TurnDelta(currentPlayer, round, firstMove, rack, rackHash, bag.randomState());
+    }
+
+    // Finishes recording a turn (before nextPlayer), dropping any turns that were undone and not redone
+    private void endTurn() {
+        turn.finished(racks[currentPlayer - 1], rackHashes[currentPlayer - 1], bag.randomState());
+        history.subList(historyPosition, history.size()).clear();
+        history.add(turn);
+        historyPosition++;
+        turn = null;
+    }
+
+    // Takes back the last turn played: its tiles, score, draws and rack (anything placed since is put back first)
+    // Costs as much as the turn changed, not the size of the board. Returns false if there is nothing to undo.
+    // Turn listeners are told (undone), so a GameRecord being written keeps matching the game.
+    public boolean undo() {
+        if (historyPosition == 0) return false;
+        if (placedCount > 0) resetPlacedTiles();
+        TurnDelta delta = history.get(--historyPosition);
+        for (int tile : delta.tiles) {
+            setSquare(tile & 0xFF, EMPTY, false);
+            occupied.clear(tile & 0xFF);
+        }
+        crossChecks.undo(delta.crossChanges);
+        int p = delta.player - 1;
+        System.arraycopy(delta.rackBefore, 0, racks[p], 0, RACK_SIZE);
+        rackHashes[p] = delta.rackHashBefore;
+        for (int i = 0; i < delta.drawnCount; i++) bag.putBack(delta.drawn[i]);
+        for (int i = 0; i < delta.returned.length(); i++) bag.remove(delta.returned.charAt(i));
+        bag.setRandomState(delta.bagStateBefore); // So the same play draws the same tiles again
+        scores[p] -= delta.score;
+        currentPlayer = delta.player;
+        round = delta.round;
+        firstMove = delta.firstMove;
+        updateAnchors();
+        recalculateValidSpots();
+        for (TurnListener listener : listeners) listener.undone(delta.player);
+        return true;
+    }
+
+    // Plays the last undone turn again, exactly as it went the first time. Returns false if there is nothing to redo.
+    // Turn listeners are told about it as if it had just been played.
+    public boolean redo() {
+        if (historyPosition == history.size()) return false;
+        if (placedCount > 0) resetPlacedTiles();
+        TurnDelta delta = history.get(historyPosition++);
+        for (int tile : delta.tiles) {
+            setSquare(tile & 0xFF, (char) ((tile >> 8) & 0xFF), (tile & TurnDelta.BLANK_BIT) != 0);
+            occupied.set(tile & 0xFF);
+        }
+        crossChecks.redo(delta.crossChanges);
+        int p = delta.player - 1;
+        System.arraycopy(delta.rackAfter, 0, racks[p], 0, RACK_SIZE);
+        rackHashes[p] = delta.rackHashAfter;
+        for (int i = 0; i < delta.drawnCount; i++) bag.remove(delta.drawn[i]);
+        for (int i = 0; i < delta.returned.length(); i++) bag.putBack(delta.returned.charAt(i));
+        bag.setRandomState(delta.bagStateAfter);
+        scores[p] += delta.score;
+        currentPlayer = delta.player;
+        round = delta.round;
+        if (delta.moved && delta.move == null && !listeners.isEmpty()) delta.move = rebuildMove(delta);
+        if (delta.moved) firstMove = false;
+        for (TurnListener listener : listeners) {
+            if (delta.moved) listener.moved(delta.player, delta.move, delta.score);
+            else if (!delta.returned.isEmpty()) listener.exchanged(delta.player, delta.returned);
+            else listener.passed(delta.player);
+        }
+        nextPlayer();
+        updateAnchors();
+        recalculateValidSpots();
+        return true;
+    }
+
+    // The Move a redone turn made, for listeners added after it was first played (its tiles are back on the board)
+    private Move rebuildMove(TurnDelta delta) {
+        for (int tile : delta.tiles) {
+            placed[placedCount++] = tile & 0xFF;
+            placedThisTurn.set(tile & 0xFF);
+        }
+        Move move = placedMove();
+        placedCount = 0;
+        placedThisTurn.clearAll();
+        return move;
+    }
+
+    // Undoes or redoes turns until exactly turn turns have been played (0 = the start of the game)
+    public void rewindTo(int turn) {
+        if (turn < 0 || turn > history.size()) throw new IllegalArgumentException("No turn " + turn + " (" + history.size() + " played)");
+        while (historyPosition > turn) undo();
+        while (historyPosition < turn) redo();
+    }
+
+    // Puts a tile on a square (or takes it off, with EMPTY), keeping the board hash up to date
+    private void setSquare(int square, char letter, boolean blank) {
+        if (board[square] != EMPTY) boardHash ^= Zobrist.square(square, board[square], blanks[square]);
+        board[square] = letter;
+        blanks[square] = blank;
+        if (letter != EMPTY) boardHash ^= Zobrist.square(square, letter, blank);
+    }
+
+    // A word on the board is stored as one int: start square, direction (across or down) and length
+    private static int span(int start, int step, int length) {
+        return start | (step == 1 ? 0 : 1 << 8) | (length << 9);
+    }
+
+    static int spanStart(int span) { return span & 0xFF; }
+    static int spanStep(int span) { return (span & (1 << 8)) == 0 ? 1 : BOARD_SIZE; }
+    static int spanLength(int span) { return span >>> 9; }
+
+    // The word running through a square in one direction (step 1 = across, BOARD_SIZE = down), or -1 if it is a lone tile
+    private int spanThrough(int square, int step) {
+        int start = square, end = square;
+        if (step == 1) {
+            while (start % BOARD_SIZE > 0 && board[start - 1] != EMPTY) start--;
+            while (end % BOARD_SIZE < BOARD_SIZE - 1 && board[end + 1] != EMPTY) end++;
+        } else {
+            while (start >= BOARD_SIZE && board[start - BOARD_SIZE] != EMPTY) start -= BOARD_SIZE;
+            while (end < SQUARES - BOARD_SIZE && board[end + BOARD_SIZE] != EMPTY) end += BOARD_SIZE;
+        }
+        int length = (end - start) / step + 1;
+        return length < 2 ? -1 : span(start, step, length);
+    }
+
+    // Finds every word made through the tiles placed this turn (each one once), returns how many there are
+    private int collectSpans() {
+        int count = 0;
+        for (int i = 0; i < placedCount; i++) {
+            count = addSpan(count, spanThrough(placed[i], 1)); // Word made horizontally
+            count = addSpan(count, spanThrough(placed[i], BOARD_SIZE)); // Word made vertically
+        }
+        return count;
+    }
+
+    private int addSpan(int count, int span) {
+        if (span < 0) return count;
+        for (int i = 0; i < count; i++) {
+            if (spans[i] == span) return count; // Already have this exact word
+        }
+        spans[count] = span;
+        return count + 1;
+    }
+
+    // Method to calulcate the score of the tiles placed this turn (every word they make, one pass over each)
+    public int calculateScore() {
+        long start = Metrics.CALCULATE_SCORE.start();
+        int count = collectSpans();
+        int totalScore = 0; // Starts off with 0
+
+        for (int i = 0; i < count; i++) {
+            int wordScore = 0;
+            int wordMultiplier = 1; // Multiplier for 'Double Word' and 'Triple Word' bonuses
+            int square = spanStart(spans[i]), step = spanStep(spans[i]), length = spanLength(spans[i]);
+
+            for (int k = 0; k < length; k++, square += step) {
+                int letterScore = blanks[square] ? 0 : VALUES[board[square] - 'A'];
+                if (isPlacedThisTurn(square)) {
+                    switch (BONUS[square]) {
+                        case DOUBLE_LETTER -> letterScore *= 2; // Multiplies the letter's score by 2
+                        case TRIPLE_LETTER -> letterScore *= 3; // Multiplies the letter's score by 3
+                        case DOUBLE_WORD -> wordMultiplier *= 2; // Multiplies the whole word's score by 2
+                        case TRIPLE_WORD -> wordMultiplier *= 3; // Multiplies the whole word's score by 3
+                    }
+                }
+                wordScore += letterScore; // Adds each letter's newly calculated score to the word's total score
+            }
+
+            totalScore += wordScore * wordMultiplier; // Multiples the entire word's score if needed
+        }
+        Metrics.CALCULATE_SCORE.stop(start, totalScore);
+        return totalScore;
+    }
+
+    // Checks if a square got its tile this turn
+    private boolean isPlacedThisTurn(int square) {
+        return placedThisTurn.get(square);
+    }
+
+    // Checks the real placement rules: every tile in one line, no gaps, and joined to the tiles already down
+    // (on the first move the only anchor is the middle square, so this also makes the first word cover it)
+    private boolean isLegalPlacement() {
+        if (placedCount == 0) return false;
+        int first = placed[0], last = placed[0];
+        boolean sameRow = true, sameCol = true;
+        for (int i = 1; i < placedCount; i++) {
+            sameRow &= placed[i] / BOARD_SIZE == first / BOARD_SIZE;
+            sameCol &= placed[i] % BOARD_SIZE == first % BOARD_SIZE;
+            first = Math.min(first, placed[i]);
+            last = Math.max(last, placed[i]);
+        }
+        if (!sameRow && !sameCol) return false;
+        int step = sameRow ? 1 : BOARD_SIZE;
+        for (int square = first; square <= last; square += step) {
+            if (!occupied.get(square)) return false; // Gap in the word
+        }
+        return placedThisTurn.intersects(anchors);
+    }
+
+    // Squares a turn can start from: next to any tile, or just the middle square on an empty board
+    private void updateAnchors() {
+        anchors.clearAll();
+        if (occupied.isEmpty()) {
+            anchors.set(CENTER);
+        } else {
+            anchors.neighboursOf(occupied);
+            anchors.andNot(occupied);
+        }
+    }
+
+    // Method to recalculate which squares are valid to place tiles on (a few bit operations, no allocation)
+    // The first tile of a turn goes on an anchor, after that only the two ends of the line being built are allowed
+    void recalculateValidSpots() {
+        long start = Metrics.VALID_SPOTS.start();
+        if (placedCount == 0) {
+            validSpots.copyFrom(anchors);
+        } else {
+            validSpots.clearAll();
+            int first = placed[0];
+            boolean sameRow = true, sameCol = true;
+            for (int i = 1; i < placedCount; i++) {
+                sameRow &= placed[i] / BOARD_SIZE == first / BOARD_SIZE;
+                sameCol &= placed[i] % BOARD_SIZE == first % BOARD_SIZE;
+            }
+            if (sameRow) addRunEnds(first, 1);
+            if (sameCol) addRunEnds(first, BOARD_SIZE);
+        }
+        Metrics.VALID_SPOTS.stop(start, placedCount);
+    }
+
+    // Marks the empty squares just past each end of the run of tiles through a square
+    private void addRunEnds(int square, int step) {
+        int start = square, end = square;
+        if (step == 1) {
+            while (start % BOARD_SIZE > 0 && occupied.get(start - 1)) start--;
+            while (end % BOARD_SIZE < BOARD_SIZE - 1 && occupied.get(end + 1)) end++;
+            if (start % BOARD_SIZE > 0) validSpots.set(start - 1);
+            if (end % BOARD_SIZE < BOARD_SIZE - 1) validSpots.set(end + 1);
+        } else {
+            while (start >= BOARD_SIZE && occupied.get(start - BOARD_SIZE)) start -= BOARD_SIZE;
+            while (end < SQUARES - BOARD_SIZE && occupied.get(end + BOARD_SIZE)) end += BOARD_SIZE;
+            if (start >= BOARD_SIZE) validSpots.set(start - BOARD_SIZE);
+            if (end < SQUARES - BOARD_SIZE) validSpots.set(end + BOARD_SIZE);
+        }
+    }
+
+    // Rough heap size of this game (the shared dictionary not included), for memory accounting
+    long estimatedBytes() {
+        long bytes = 112; // The engine object itself
+        bytes += arrayBytes(SQUARES, 2) + arrayBytes(SQUARES, 1); // board, blanks
+        bytes += 4 * (16 + arrayBytes(4, 8)); // Bitboards
+        bytes += 32 + arrayBytes(LETTERS.length, 4); // Bag
+        bytes += arrayBytes(numPlayers, 4) + arrayBytes(numPlayers, 8) + arrayBytes(numPlayers, 4) + numPlayers * arrayBytes(RACK_SIZE, 2);
+        bytes += arrayBytes(RACK_SIZE, 4) + arrayBytes(2 * RACK_SIZE, 4) + 24 + 40 + arrayBytes(2, 4); // placed, spans, run, listeners
+        bytes += arrayBytes(history.size(), 4) + 40;
+        for (TurnDelta delta : history) bytes += delta.estimatedBytes();
+        return bytes + crossChecks.estimatedBytes();
+    }
+
+    // Size of an array on the heap: header plus elements, rounded up to 8 bytes
+    static long arrayBytes(int length, int elementSize) {
+        return (16 + (long) length * elementSize + 7) & ~7L;
+    }
+
+    // Getters used by the UI (and anything else that drives the game)
+    @Override public char letterAt(int row, int col) { return board[row * BOARD_SIZE + col]; }
+    @Override public boolean isBlank(int row, int col) { return blanks[row * BOARD_SIZE + col]; }
+    public char letterAt(int square) { return board[square]; }
+    public boolean isBlank(int square) { return blanks[square]; }
+    public int crossCheck(int square, boolean across) { return across ? crossChecks.across[square] : crossChecks.down[square]; }
+    public int crossScore(int square, boolean across) { return across ? crossChecks.acrossScore[square] : crossChecks.downScore[square]; }
+    CrossChecks crossChecks() { return crossChecks; }
+    @Override public boolean isValidSpot(int row, int col) { return validSpots.get(row * BOARD_SIZE + col); }
+    public char rackSlot(int player, int slot) { return racks[player - 1][slot]; }
+    public int placedCount() { return placedCount; }
+    public int placedSquare(int i) { return placed[i]; }
+    public int bagSize() { return bag.size(); }
+    public LetterBag bagCopy() { return bag.copy(); } // Same tiles and the same upcoming draws
+    public long seed() { return seed; }
+    public void addTurnListener(TurnListener listener) { listeners.add(listener); }
+    public void removeTurnListener(TurnListener listener) { listeners.remove(listener); }
+    public int score(int player) { return scores[player - 1]; }
+    public int numPlayers() { return numPlayers; }
+    public int currentPlayer() { return currentPlayer; }
+    public int round() { return round; }
+    public boolean isFirstMove() { return firstMove; }
+    public boolean isGameOver() { return bagSize() == 0; } // The game ends whenever the bag runs out
+    public long boardHash() { return boardHash; }
+    public int turnsPlayed() { return historyPosition; } // Turns currently on the board (see undo)
+    public int turnsRecorded() { return history.size(); } // Turns that can be rewound to, redo included
+    public long rackHash(int player) { return rackHashes[player - 1]; }
+    public long positionHash() { return boardHash ^ Long.rotateLeft(rackHashes[currentPlayer - 1], 1) ^ currentPlayer; } // Board plus the rack of the player to move
+
+    // What one finished turn changed (a move, pass or exchange), enough to take it back or play it again
+    // Only the squares, racks, draws and cross-checks it touched are kept, never a copy of the board
+    private static final class TurnDelta {
+        static final int BLANK_BIT = 1 << 16;
+        private static final int[] NONE = new int[0];
+
+        final int player, round; // Before the turn
+        final boolean firstMove;
+        final char[] rackBefore;
+        final long rackHashBefore, bagStateBefore;
+        boolean moved = false; // Tiles went down (rather than a pass or exchange)
+        int[] tiles = NONE; // square | letter << 8 | BLANK_BIT for every tile put down
+        int score = 0;
+        int[] crossChanges = NONE; // See CrossChecks.changes
+        final char[] drawn = new char[RACK_SIZE]; // Tiles taken from the bag, in order
+        int drawnCount = 0;
+        String returned = ""; // Tiles put back in the bag (exchanges)
+        Move move; // What turn listeners were told was played (null if nobody was listening)
+        char[] rackAfter;
+        long rackHashAfter, bagStateAfter;
+
+        TurnDelta(int player, int round, boolean firstMove, char[] rackBefore, long rackHashBefore, long bagStateBefore) {
+            this.player = player;
+            this.round = round;
+            this.firstMove = firstMove;
+            this.rackBefore = rackBefore;
+            this.rackHashBefore = rackHashBefore;
+            this.bagStateBefore = bagStateBefore;
+        }
+
+        void moved(char[] board, boolean[] blanks, int[] placed, int placedCount, int score, int[] crossChanges) {
+            moved = true;
+            tiles = new int[placedCount];
+            for (int i = 0; i < placedCount; i++) {
+                int square = placed[i];
+                tiles[i] = square | board[square] << 8 | (blanks[square] ? BLANK_BIT : 0);
+            }
+            this.score = score;
+            this.crossChanges = crossChanges;
+        }
+
+        void drew(char tile) {
+            drawn[drawnCount++] = tile;
+        }
+
+        void finished(char[] rack, long rackHash, long bagState) {
+            rackAfter = rack.clone();
+            rackHashAfter = rackHash;
+            bagStateAfter = bagState;
+        }
+
+        long estimatedBytes() {
+            return 92 + 3 * arrayBytes(RACK_SIZE, 2) + (tiles == NONE ? 0 : arrayBytes(tiles.length, 4))
+                    + (crossChanges == NONE ? 0 : arrayBytes(crossChanges.length, 4));
+        }
+    }
+
+    // A word on the board seen as letters, without copying them anywhere
+    private final class Run implements CharSequence {
+        private int start, step, length;
+
+        Run set(int span) {
+            start = spanStart(span);
+            step = spanStep(span);
+            length = spanLength(span);
+            return this;
+        }
+
+        @Override public int length() { return length; }
+        @Override public char charAt(int index) { return board[start + index * step]; }
+        @Override public CharSequence subSequence(int from, int to) { return toString().substring(from, to); }
+        @Override public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) chars[i] = charAt(i);
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Saved games: a compact binary format, a writer that records a game as it is played, a streaming reader that replays
+// records through the engine (no UI), and an export to GCG text
+//
+// A file is any number of games one after the other. Each game is:
+//   header   "FPTG", version (1 byte), players (1 byte), seed (8 bytes, big-endian)
+//   turns    kind (1 byte) and player (1 byte), then
+//              MOVE:     first square (1 byte), length | 0x80 if down (1 byte), one byte per letter, score (2 bytes)
+//              EXCHANGE: count (1 byte), one byte per tile
+//              PASS:     nothing
+//              UNDO:     nothing (takes back the last turn still on the board; player is whoever played it)
+//   end      END (1 byte), then every player's final score (2 bytes each) - missing if the game was never finished
+// A letter byte is the tile index (0-25 = A-Z, 26 = blank) in bits 0-4, 0x20 if it's a blank and 0x40 if it's a new tile.
+// The bag comes from the seed, so the draws never need to be stored: replaying the turns deals the same tiles again.
+// Version 1 records are the same without UNDO, so they can still be read.
+public final class GameRecord {
+    static final int MAGIC = 'F' << 24 | 'P' << 16 | 'T' << 8 | 'G';
+    static final int VERSION = 2;
+    static final int END = 0, MOVE = 1, PASS = 2, EXCHANGE = 3, UNDO = 4;
+    private static final int BLANK_BIT = 0x20, NEW_BIT = 0x40, DOWN_BIT = 0x80;
+
+    private GameRecord() {}
+
+    // One turn read back from a record
+    public static final class Turn {
+        public final int kind; // MOVE, PASS, EXCHANGE or UNDO
+        public final int player;
+        public final Move move; // MOVE only (its score is the recorded one)
+        public final String tiles; // EXCHANGE only
+
+        Turn(int kind, int player, Move move, String tiles) {
+            this.kind = kind;
+            this.player = player;
+            this.move = move;
+            this.tiles = tiles;
+        }
+    }
+
+    // Records a game as it is played: attach it with engine.addTurnListener after start()
+    // Write errors don't stop the game; the first one is kept (see error()) and nothing more is written.
+    public static final class Writer implements TurnListener, Closeable {
+        private final DataOutputStream out;
+        private final boolean flushEveryTurn; // So a crash loses at most the turn being played
+        private IOException error;
+
+        public Writer(OutputStream out, boolean flushEveryTurn) {
+            // Memory needs no buffer in front of it (and sessions keep thousands of these)
+            this.out = new DataOutputStream(out instanceof ByteArrayOutputStream ? out : new BufferedOutputStream(out));
+            this.flushEveryTurn = flushEveryTurn;
+        }
+
+        // Writes the header of a new game (a Writer can record any number of games in a row)
+        public void start(GameEngine engine) {
+            try {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeByte(engine.numPlayers());
+                out.writeLong(engine.seed());
+                turnDone();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void moved(int player, Move move, int score) {
+            if (error != null) return;
+            try {
+                out.writeByte(MOVE);
+                out.writeByte(player);
+                out.writeByte(move.row * GameEngine.BOARD_SIZE + move.col);
+                out.writeByte(move.word.length() | (move.across ? 0 : DOWN_BIT));
+                for (int i = 0; i < move.word.length(); i++) {
+                    char c = move.word.charAt(i);
+                    out.writeByte(GameEngine.letterIndex(c) | (move.isBlank(i) ? BLANK_BIT : 0) | (move.isNewTile(i) ? NEW_BIT : 0));
+                }
+                out.writeShort(score);
+                turnDone();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void passed(int player) {
+            if (error != null) return;
+            try {
+                out.writeByte(PASS);
+                out.writeByte(player);
+                turnDone();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void exchanged(int player, String tiles) {
+            if (error != null) return;
+            try {
+                out.writeByte(EXCHANGE);
+                out.writeByte(player);
+                out.writeByte(tiles.length());
+                for (int i = 0; i < tiles.length(); i++) out.writeByte(GameEngine.letterIndex(tiles.charAt(i)));
+                turnDone();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void undone(int player) {
+            if (error != null) return;
+            try {
+                out.writeByte(UNDO);
+                out.writeByte(player);
+                turnDone();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        // Marks the end of the game, with everyone's final score
+        public void finish(GameEngine engine) {
+            if (error != null) return;
+            try {
+                out.writeByte(END);
+                for (int player = 1; player <= engine.numPlayers(); player++) out.writeShort(engine.score(player));
+                turnDone();
+            } catch (IOException e) {
+                failed(e);
+            }
+        }
+
+        // First write error (null if there hasn't been one)
+        public IOException error() {
+            return error;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void turnDone() throws IOException {
+            if (flushEveryTurn) out.flush();
+        }
+
+        private void failed(IOException e) {
+            if (error == null) {
+                error = e;
+                e.printStackTrace(); // The game carries on, it just isn't saved
+            }
+        }
+    }
+
+    // Reads games back one turn at a time, so archives of any size can be streamed
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private int numPlayers;
+        private long seed;
+        private int[] finalScores; // Set once END has been read (null if the game wasn't finished)
+        private boolean inGame = false;
+
+        public Reader(InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        }
+
+        // Moves on to the next game in the stream (skipping what's left of this one), false if there are no more
+        public boolean nextGame() throws IOException {
+            while (inGame && nextTurn() != null) {
+                // Skips the rest of the current game
+            }
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            if (magic != MAGIC) throw new IOException("Not a game record");
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported game record version " + version);
+            numPlayers = in.readUnsignedByte();
+            seed = in.readLong();
+            finalScores = null;
+            inGame = true;
+            return true;
+        }
+
+        public int numPlayers() { return numPlayers; }
+        public long seed() { return seed; }
+        public int[] finalScores() { return finalScores; }
+
+        // Next turn of the current game (null once the game is over, or if the record stops early)
+        public Turn nextTurn() throws IOException {
+            if (!inGame) return null;
+            int kind = in.read();
+            if (kind < 0) { // Record of a game that was never finished
+                inGame = false;
+                return null;
+            }
+            if (kind == END) {
+                finalScores = new int[numPlayers];
+                for (int i = 0; i < numPlayers; i++) finalScores[i] = in.readUnsignedShort();
+                inGame = false;
+                return null;
+            }
+            int player = in.readUnsignedByte();
+            switch (kind) {
+                case MOVE -> {
+                    int square = in.readUnsignedByte(), lengthAndDir = in.readUnsignedByte();
+                    int length = lengthAndDir & ~DOWN_BIT, tiles = 0, blanks = 0;
+                    char[] word = new char[length];
+                    for (int i = 0; i < length; i++) {
+                        int b = in.readUnsignedByte();
+                        word[i] = GameEngine.LETTERS[b & 0x1F];
+                        if ((b & NEW_BIT) != 0) tiles |= 1 << i;
+                        if ((b & BLANK_BIT) != 0) blanks |= 1 << i;
+                    }
+                    int score = in.readUnsignedShort();
+                    Move move = new Move(square / GameEngine.BOARD_SIZE, square % GameEngine.BOARD_SIZE,
+                            (lengthAndDir & DOWN_BIT) == 0, new String(word), tiles, blanks, score);
+                    return new Turn(MOVE, player, move, null);
+                }
+                case PASS -> {
+                    return new Turn(PASS, player, null, null);
+                }
+                case UNDO -> {
+                    return new Turn(UNDO, player, null, null);
+                }
+                case EXCHANGE -> {
+                    char[] tiles = new char[in.readUnsignedByte()];
+                    for (int i = 0; i < tiles.length; i++) tiles[i] = GameEngine.LETTERS[in.readUnsignedByte()];
+                    return new Turn(EXCHANGE, player, null, new String(tiles));
+                }
+                default -> throw new IOException("Unknown turn kind " + kind);
+            }
+        }
+
+        // Plays the rest of the current game through a new engine and returns it (scores are checked as it goes)
+        public GameEngine replay(Lexicon lexicon) throws IOException {
+            return replay(lexicon, null);
+        }
+
+        // Same, telling listener about every turn (with the engine about to play it)
+        GameEngine replay(Lexicon lexicon, ReplayListener listener) throws IOException {
+            GameEngine engine = new GameEngine(numPlayers, lexicon, seed);
+            Turn turn;
+            while ((turn = nextTurn()) != null) {
+                if (turn.kind != UNDO && turn.player != engine.currentPlayer()) throw new IOException("Turn out of order in round " + engine.round());
+                if (listener != null) listener.beforeTurn(engine, turn);
+                switch (turn.kind) {
+                    case MOVE -> {
+                        int score = engine.playMove(turn.move);
+                        if (score != turn.move.score) throw new IOException("Recorded move " + turn.move + " scores " + score);
+                    }
+                    case PASS -> engine.pass();
+                    case EXCHANGE -> {
+                        if (!engine.exchange(turn.tiles)) throw new IOException("Recorded exchange of " + turn.tiles + " isn't possible");
+                    }
+                    case UNDO -> {
+                        if (!engine.undo()) throw new IOException("Recorded undo with no turn to take back");
+                    }
+                }
+            }
+            if (finalScores != null) {
+                for (int i = 0; i < numPlayers; i++) {
+                    if (finalScores[i] != engine.score(i + 1)) throw new IOException("Final score of player " + (i + 1) + " doesn't match");
+                }
+            }
+            return engine;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // Sees every turn of a replay just before it is played
+    interface ReplayListener {
+        void beforeTurn(GameEngine engine, Turn turn) throws IOException;
+    }
+
+    // Writes the current game of a reader as GCG text (replaying it, so the racks can be shown)
+    // An undone turn is written like a withdrawn move: the rack it was played from, "--" and its points taken off
+    public static void exportGcg(Reader reader, Lexicon lexicon, Appendable out) throws IOException {
+        out.append("#character-encoding UTF-8\n");
+        out.append("#description Seed ").append(Long.toString(reader.seed())).append('\n');
+        for (int i = 1; i <= reader.numPlayers(); i++) out.append("#player").append(Integer.toString(i)).append(" p").append(Integer.toString(i)).append(" Player ").append(Integer.toString(i)).append('\n');
+        int[] totals = new int[reader.numPlayers()];
+        Deque<String> racks = new ArrayDeque<>(); // Rack and points of every turn still on the board, for undos
+        Deque<Integer> points = new ArrayDeque<>();
+        reader.replay(lexicon, (engine, turn) -> {
+            StringBuilder rack = new StringBuilder();
+            for (int slot = 0; slot < GameEngine.RACK_SIZE; slot++) {
+                char c = engine.rackSlot(turn.player, slot);
+                if (c != GameEngine.EMPTY) rack.append(c == GameEngine.BLANK ? '?' : c);
+            }
+            if (turn.kind == UNDO) {
+                int score = points.isEmpty() ? 0 : points.pop();
+                totals[turn.player - 1] -= score;
+                out.append(">p").append(Integer.toString(turn.player)).append(": ").append(racks.isEmpty() ? "" : racks.pop())
+                        .append(" -- -").append(Integer.toString(score)).append(' ').append(Integer.toString(totals[turn.player - 1])).append('\n');
+                return;
+            }
+            StringBuilder line = new StringBuilder(">p").append(turn.player).append(": ").append(rack);
+            int score = 0;
+            switch (turn.kind) {
+                case MOVE -> {
+                    Move move = turn.move;
+                    String row = Integer.toString(move.row + 1), col = String.valueOf((char) ('A' + move.col));
+                    line.append(' ').append(move.across ? row + col : col + row).append(' ');
+                    for (int i = 0; i < move.word.length(); i++) {
+                        char c = move.word.charAt(i);
+                        line.append(!move.isNewTile(i) ? '.' : move.isBlank(i) ? Character.toLowerCase(c) : c);
+                    }
+                    score = move.score;
+                }
+                case PASS -> line.append(" -");
+                case EXCHANGE -> line.append(" -").append(turn.tiles.replace(GameEngine.BLANK, '?'));
+            }
+            totals[turn.player - 1] += score;
+            racks.push(rack.toString());
+            points.push(score);
+            out.append(line).append(" +").append(Integer.toString(score)).append(' ').append(Integer.toString(totals[turn.player - 1])).append('\n');
+        });
+    }
+
+    // Records a game to its own file in folder (named after the time and seed), null if the file can't be made
+    public static Writer recordTo(Path folder, GameEngine engine) {
+        try {
+            Files.createDirectories(folder);
+            Path file = folder.resolve(String.format("game-%tY%<tm%<td-%<tH%<tM%<tS-%016x.fptg", new Date(), engine.seed()));
+            Writer writer = new Writer(Files.newOutputStream(file), true);
+            writer.start(engine);
+            engine.addTurnListener(writer);
+            return writer;
+        } catch (IOException e) {
+            e.printStackTrace(); // The game can still be played, it just won't be saved
+            return null;
+        }
+    }
+
+    // java FPT.GameRecord replay <file>   replays every game in a file and reports games per second
+    // java FPT.GameRecord gcg <file>      prints every game in a file as GCG
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !(args[0].equals("replay") || args[0].equals("gcg"))) {
+            System.out.println("Usage: java FPT.GameRecord replay|gcg <file>");
+            return;
+        }
+        Lexicon lexicon = SharedDictionary.get();
+        try (Reader reader = new Reader(Files.newInputStream(Paths.get(args[1])))) {
+            long start = System.nanoTime();
+            int games = 0, turns = 0;
+            while (reader.nextGame()) {
+                if (args[0].equals("gcg")) {
+                    exportGcg(reader, lexicon, System.out);
+                    System.out.println();
+                } else {
+                    turns += reader.replay(lexicon).round();
+                }
+                games++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (args[0].equals("replay")) System.out.printf("Replayed %d games (%d rounds) in %.2f s (%.0f games/s)%n", games, turns, seconds, games / seconds);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+// Hosts any number of separate games over TCP (see Protocol for the messages)
+// One thread runs a non-blocking NIO selector over every connection and owns every game, so the engines never need
+// locks. A move is a few microseconds of engine work, which is far less than the network round trip, so one thread
+// keeps up with thousands of games played at human (or bot) speed. Each connection remembers the board its client
+// last saw, so after every action each seat is only sent the squares that changed, plus its own rack.
+//
+// java FPT.GameServer [port]  (default 7777)
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 7777;
+    private static final int MAX_PENDING_OUTPUT = 1 << 20; // A client this far behind is dropped
+
+    private final Lexicon lexicon;
+    private final Map<Integer, ServerGame> games = new HashMap<>();
+    private int nextGameId = 1;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private Thread thread;
+    private volatile int gameCount, connectionCount; // For anyone watching from another thread
+    private volatile boolean running;
+
+    // One game and who is sitting in each seat
+    private static final class ServerGame {
+        final int id;
+        final GameEngine engine;
+        final Connection[] seats; // Index seat - 1, null while the seat is empty
+        boolean started = false; // Every seat has been filled at least once
+
+        ServerGame(int id, GameEngine engine) {
+            this.id = id;
+            this.engine = engine;
+            this.seats = new Connection[engine.numPlayers()];
+        }
+    }
+
+    // One client
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(2 * Protocol.MAX_FRAME);
+        ByteBuffer out = ByteBuffer.allocate(1 << 12);
+        final char[] seenBoard = new char[GameEngine.SQUARES]; // What this client has been told is on the board
+        final boolean[] seenBlank = new boolean[GameEngine.SQUARES];
+        ServerGame game;
+        int seat;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        // Queues a frame and writes as much as the socket will take right now
+        void send(ByteBuffer frame) throws IOException {
+            if (out.remaining() < frame.remaining()) {
+                if (out.position() + frame.remaining() > MAX_PENDING_OUTPUT) throw new IOException("Client isn't reading");
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + frame.remaining()));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            out.put(frame);
+            flush();
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    public GameServer(Lexicon lexicon) {
+        this.lexicon = lexicon;
+    }
+
+    // Starts listening (port 0 picks a free one), returns the port
+    public synchronized int start(InetSocketAddress address) throws IOException {
+        if (running) throw new IllegalStateException("Already running");
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(address, 1024);
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::loop, "game-server");
+        thread.start();
+        return listener.socket().getLocalPort();
+    }
+
+    public int gameCount() { return gameCount; }
+    public int connectionCount() { return connectionCount; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) return;
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The selector loop: accepts, reads and writes until close() is called
+    private void loop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) c.flush();
+                    } catch (IOException | RuntimeException e) {
+                        disconnect(c);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = listener.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // Small messages, sent straight away
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+            connectionCount++;
+        }
+    }
+
+    // Reads what has arrived and handles every complete frame in it
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            disconnect(c);
+            return;
+        }
+        c.in.flip();
+        while (c.in.remaining() >= 2) {
+            int length = c.in.getShort(c.in.position()) & 0xFFFF;
+            if (length == 0 || length > Protocol.MAX_FRAME) throw new IOException("Bad frame length " + length);
+            if (c.in.remaining() < 2 + length) break; // Rest of the frame hasn't arrived yet
+            int end = c.in.position() + 2 + length;
+            c.in.position(c.in.position() + 2);
+            byte type = c.in.get();
+            ByteBuffer payload = c.in.slice().limit(length - 1);
+            c.in.position(end);
+            handle(c, type, payload);
+            if (!c.key.isValid()) return; // Disconnected while handling it
+        }
+        c.in.compact();
+    }
+
+    private void handle(Connection c, byte type, ByteBuffer payload) throws IOException {
+        if (type == Protocol.JOIN) {
+            join(c, payload.getInt(), payload.get());
+            return;
+        }
+        ServerGame game = c.game;
+        if (game == null) {
+            c.send(Protocol.error("Join a game first"));
+            return;
+        }
+        GameEngine engine = game.engine;
+        if (!game.started) {
+            c.send(Protocol.error("Waiting for players"));
+            return;
+        }
+        if (engine.isGameOver()) {
+            c.send(Protocol.error("The game is over"));
+            return;
+        }
+        if (c.seat != engine.currentPlayer()) {
+            c.send(Protocol.error("It isn't your turn"));
+            return;
+        }
+        switch (type) {
+            case Protocol.PLACE -> {
+                int square = payload.get() & 0xFF;
+                char letter = (char) (payload.get() & 0xFF);
+                if (square >= GameEngine.SQUARES || !engine.placeTile(letter, square)) {
+                    c.send(Protocol.error("Can't place that there"));
+                    return;
+                }
+            }
+            case Protocol.RESET -> engine.resetPlacedTiles();
+            case Protocol.SUBMIT -> {
+                if (engine.placedCount() == 0 || !engine.validateWords()) {
+                    engine.resetPlacedTiles();
+                    c.send(Protocol.error("Invalid word!"));
+                } else {
+                    engine.submit();
+                }
+            }
+            case Protocol.PASS -> engine.pass();
+            default -> throw new IOException("Unknown message type " + type);
+        }
+        broadcast(game);
+    }
+
+    // Starts a new game (gameId 0) or takes the first empty seat in an existing one
+    private void join(Connection c, int gameId, int players) throws IOException {
+        if (c.game != null) {
+            c.send(Protocol.error("Already in a game"));
+            return;
+        }
+        ServerGame game;
+        if (gameId == 0) {
+            if (players < 2 || players > 4) {
+                c.send(Protocol.error("Games have 2 to 4 players"));
+                return;
+            }
+            game = new ServerGame(nextGameId++, new GameEngine(players, lexicon));
+            games.put(game.id, game);
+            gameCount = games.size();
+        } else {
+            game = games.get(gameId);
+            if (game == null) {
+                c.send(Protocol.error("No game " + gameId));
+                return;
+            }
+        }
+        int seat = 0;
+        while (seat < game.seats.length && game.seats[seat] != null) seat++;
+        if (seat == game.seats.length) {
+            c.send(Protocol.error("Game " + gameId + " is full"));
+            return;
+        }
+        game.seats[seat] = c;
+        c.game = game;
+        c.seat = seat + 1;
+        Arrays.fill(c.seenBoard, GameEngine.EMPTY); // Sends the whole board in the first STATE
+        Arrays.fill(c.seenBlank, false);
+        boolean full = true;
+        for (Connection s : game.seats) full &= s != null;
+        game.started |= full;
+
+        ByteBuffer welcome = ByteBuffer.allocate(Protocol.HEADER + 6);
+        int start = Protocol.begin(welcome, Protocol.WELCOME);
+        welcome.putInt(game.id).put((byte) c.seat).put((byte) game.seats.length);
+        Protocol.end(welcome, start);
+        c.send(welcome.flip());
+        broadcast(game);
+    }
+
+    // Sends every seat the new state of a game
+    private void broadcast(ServerGame game) {
+        for (Connection seat : game.seats) {
+            if (seat == null) continue;
+            try {
+                seat.send(state(game, seat));
+            } catch (IOException e) {
+                disconnect(seat);
+            }
+        }
+    }
+
+    // STATE for one seat: everything small, plus the squares that changed since that seat's last STATE
+    private ByteBuffer state(ServerGame game, Connection c) {
+        GameEngine engine = game.engine;
+        ByteBuffer buf = ByteBuffer.allocate(Protocol.HEADER + 48 + 2 * engine.numPlayers() + 3 * GameEngine.SQUARES);
+        int start = Protocol.begin(buf, Protocol.STATE);
+        buf.put((byte) ((engine.isGameOver() ? Protocol.GAME_OVER : 0) | (game.started ? Protocol.STARTED : 0)));
+        buf.put((byte) engine.currentPlayer()).putShort((short) engine.round()).put((byte) engine.bagSize());
+        buf.put((byte) engine.numPlayers());
+        for (int player = 1; player <= engine.numPlayers(); player++) buf.putShort((short) engine.score(player));
+        for (int slot = 0; slot < GameEngine.RACK_SIZE; slot++) buf.put((byte) engine.rackSlot(c.seat, slot));
+
+        boolean myTurn = c.seat == engine.currentPlayer() && game.started;
+        for (int word = 0; word < 4; word++) {
+            long bits = 0;
+            for (int bit = 0; bit < 64 && word * 64 + bit < GameEngine.SQUARES; bit++) {
+                int square = word * 64 + bit;
+                if (myTurn && engine.isValidSpot(square / GameEngine.BOARD_SIZE, square % GameEngine.BOARD_SIZE)) bits |= 1L << bit;
+            }
+            buf.putLong(bits);
+        }
+
+        int countAt = buf.position(), changed = 0;
+        buf.put((byte) 0);
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            char letter = engine.letterAt(square);
+            boolean blank = engine.isBlank(square);
+            if (letter == c.seenBoard[square] && blank == c.seenBlank[square]) continue;
+            buf.put((byte) square).put((byte) letter).put((byte) (blank ? 1 : 0));
+            c.seenBoard[square] = letter;
+            c.seenBlank[square] = blank;
+            changed++;
+        }
+        buf.put(countAt, (byte) changed);
+        Protocol.end(buf, start);
+        return buf.flip();
+    }
+
+    // Closes a connection and frees its seat (someone can rejoin the game and take it)
+    private void disconnect(Connection c) {
+        if (!c.key.isValid()) return;
+        c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        connectionCount--;
+        ServerGame game = c.game;
+        if (game == null) return;
+        game.seats[c.seat - 1] = null;
+        c.game = null;
+        boolean empty = true;
+        for (Connection s : game.seats) empty &= s == null;
+        if (empty) { // Nobody left to play it
+            games.remove(game.id);
+            gameCount = games.size();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(SharedDictionary.get());
+        port = server.start(new InetSocketAddress(port));
+        System.out.println("Game server listening on port " + port);
+    }
+}
@@ -0,0 +1,93 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.net.*;
+
+// Checks that every seat of a network game ends up seeing the same game, and that bots don't get stuck on errors
+// Run from the folder above the project (like the game): java FPT.GameServerCheck [games] [players]
+// Starts a GameServer on a free port on this machine and plays bot games against it to the end. Each seat's last
+// STATE is built from its own stream of changed squares, so any square, score or turn a seat was told wrongly shows up
+// as a difference between seats. Every word on the final board has to be in the dictionary too. Exits with 1 if
+// anything differs, if the games don't finish in time, or if the server sent more errors than there were turns.
+public class GameServerCheck {
+    private static final long TIMEOUT_MILLIS = 120_000; // Far longer than a run takes: a bot looping on errors ends up here
+
+    private final Lexicon lexicon;
+    private int checks = 0, failures = 0;
+
+    GameServerCheck(Lexicon lexicon) {
+        this.lexicon = lexicon;
+    }
+
+    private void check(boolean ok, String what) {
+        checks++;
+        if (!ok) {
+            failures++;
+            if (failures <= 10) System.out.println("FAILED: " + what);
+        }
+    }
+
+    // Everything every seat is told the same, as one string to compare (racks are private, so they're left out)
+    static String state(GameClient.RemoteGame game) {
+        StringBuilder b = new StringBuilder();
+        b.append(game.gameId).append('|').append(game.currentPlayer()).append('|').append(game.round()).append('|')
+                .append(game.bagSize()).append('|').append(game.isGameOver()).append('|');
+        for (int p = 1; p <= game.numPlayers; p++) b.append(game.score(p)).append(',');
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            b.append(game.letterAt(square)).append(game.isBlank(square) ? 'b' : '-');
+        }
+        return b.toString();
+    }
+
+    // Every run of two or more letters across and down has to be a word
+    private void checkWords(GameClient.RemoteGame game, int g) {
+        for (int across = 0; across < 2; across++) {
+            for (int line = 0; line < GameEngine.BOARD_SIZE; line++) {
+                StringBuilder word = new StringBuilder();
+                for (int i = 0; i <= GameEngine.BOARD_SIZE; i++) {
+                    char letter = GameEngine.EMPTY;
+                    if (i < GameEngine.BOARD_SIZE) letter = across == 1 ? game.letterAt(line, i) : game.letterAt(i, line);
+                    if (letter != GameEngine.EMPTY) {
+                        word.append(letter);
+                        continue;
+                    }
+                    if (word.length() > 1) check(lexicon.contains(word), "game " + g + " has " + word + " on the board");
+                    word.setLength(0);
+                }
+            }
+        }
+    }
+
+    void checkRun(int games, int players) throws Exception {
+        try (GameServer server = new GameServer(lexicon)) {
+            int port = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            GameClient.BotReport report = GameClient.runBots(lexicon, InetAddress.getLoopbackAddress().getHostAddress(), port,
+                    games, players, TIMEOUT_MILLIS);
+            System.out.println(report);
+            check(!report.timedOut, "bots were still playing after " + TIMEOUT_MILLIS / 1000 + " s");
+            check(report.errors <= report.latencies.length, report.errors + " errors for " + report.latencies.length + " turns");
+            for (int g = 0; g < games; g++) {
+                GameClient.RemoteGame first = report.finals[g][0];
+                if (first == null) {
+                    check(false, "game " + g + " never started");
+                    continue;
+                }
+                check(first.isGameOver(), "game " + g + " stopped at round " + first.round() + " without finishing");
+                for (int seat = 1; seat < players; seat++) {
+                    GameClient.RemoteGame other = report.finals[g][seat];
+                    check(other != null && state(other).equals(state(first)), "seat " + (seat + 1) + " of game " + g + " saw a different game");
+                }
+                checkWords(first, g);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        GameServerCheck check = new GameServerCheck(SharedDictionary.get());
+        check.checkRun(games, players);
+        System.out.printf("%d games of %d players, %d checks, %d failed%n", games, players, check.checks, check.failures);
+        if (check.failures > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,92 @@
+package FPT; // The folder containing all the other files in the project
+
+// The bag of tiles, stored as how many of each tile are left (A-Z then the blank) instead of a list of tiles
+// A draw picks a random tile weighted by those counts: one random number, then a walk along the counts until it lands.
+// That is linear in the alphabet (at most 27 slots), not constant, but nothing shifts and nothing is boxed.
+// The random numbers come from a SplitMix64 generator held in one long, which makes the bag:
+//  - reproducible: the same seed always gives the same draws
+//  - splittable: split() gives a copy with its own independent stream (for simulations running side by side)
+//  - cheap to save and restore: 27 counts and one long (copy() and restore())
+public final class LetterBag {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L; // SplitMix64 step
+
+    private final int[] counts = new int[GameEngine.LETTERS.length];
+    private int size;
+    private long state; // Random number generator state
+
+    // A full bag (the official tile counts)
+    public LetterBag(long seed) {
+        this(GameEngine.COUNTS, seed);
+    }
+
+    // A bag holding the given number of each tile
+    public LetterBag(int[] tileCounts, long seed) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = tileCounts[i];
+            size += tileCounts[i];
+        }
+        state = seed;
+    }
+
+    // Takes a random tile out of the bag (EMPTY if the bag is empty)
+    public char draw() {
+        if (size == 0) return GameEngine.EMPTY;
+        int r = (int) (((nextLong() >>> 32) * size) >>> 32); // Uniform in [0, size)
+        int i = 0;
+        while (r >= counts[i]) r -= counts[i++]; // Linear in the alphabet, not constant
+        counts[i]--;
+        size--;
+        return GameEngine.LETTERS[i];
+    }
+
+    // Puts a tile back in the bag (for exchanges)
+    public void putBack(char tile) {
+        counts[GameEngine.letterIndex(tile)]++;
+        size++;
+    }
+
+    // Takes a particular tile out (for setting up a position), returns false if there isn't one left
+    public boolean remove(char tile) {
+        int i = GameEngine.letterIndex(tile);
+        if (counts[i] == 0) return false;
+        counts[i]--;
+        size--;
+        return true;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int count(char tile) { return counts[GameEngine.letterIndex(tile)]; }
+
+    // Same tiles and the same random stream (draws from the copy match draws from this bag)
+    public LetterBag copy() {
+        return new LetterBag(counts, state);
+    }
+
+    // Same tiles but a new random stream of its own (and this bag's stream moves on, so two splits differ)
+    public LetterBag split() {
+        return new LetterBag(counts, mix(nextLong()));
+    }
+
+    // Makes this bag the same as another one (tiles and random stream), without allocating
+    public void restore(LetterBag other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        size = other.size;
+        state = other.state;
+    }
+
+    // The random stream on its own, for putting a bag back to an earlier turn (tiles are put back one by one)
+    long randomState() { return state; }
+    void setRandomState(long state) { this.state = state; }
+
+    // SplitMix64 (Steele, Lea and Flood): step the state, then scramble it
+    private long nextLong() {
+        return mix(state += GAMMA);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,72 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+
+// Checks what the LetterBag promises: official counts, repeatable draws, independent splits and seeded deals
+// Run from the folder above the project (like the game): java FPT.LetterBagCheck
+// (How long a restore and a rack of draws takes is in the JMH module: BagBenchmarks in bench/.)
+// Exits with 1 if anything differs.
+public class LetterBagCheck {
+    private static final int SEEDS = 1000; // Bags tried for each check
+    private static final int DRAWS = 20; // Tiles compared between copies
+
+    private int checks = 0, failures = 0;
+
+    private void check(boolean ok, String what) {
+        checks++;
+        if (!ok) {
+            failures++;
+            if (failures <= 10) System.out.println("FAILED: " + what);
+        }
+    }
+
+    // The next count tiles from a bag, as a string
+    private static String draw(LetterBag bag, int count) {
+        StringBuilder tiles = new StringBuilder();
+        for (int i = 0; i < count; i++) tiles.append(bag.draw());
+        return tiles.toString();
+    }
+
+    void run(Lexicon lexicon) {
+        for (long seed = 0; seed < SEEDS; seed++) {
+            // Drawing everything gives exactly the official tiles, then nothing
+            LetterBag full = new LetterBag(seed);
+            int[] counts = new int[GameEngine.LETTERS.length];
+            int drawn = 0;
+            for (char tile; (tile = full.draw()) != GameEngine.EMPTY; drawn++) counts[GameEngine.letterIndex(tile)]++;
+            check(Arrays.equals(counts, GameEngine.COUNTS) && full.isEmpty(), "seed " + seed + " doesn't empty to the official counts (" + drawn + " tiles)");
+
+            // A copy, and a bag restored from a copy, draw the same tiles as the original
+            LetterBag bag = new LetterBag(seed);
+            draw(bag, (int) (seed % 50));
+            LetterBag copy = bag.copy();
+            LetterBag saved = bag.copy();
+            String original = draw(bag, DRAWS);
+            check(draw(copy, DRAWS).equals(original), "seed " + seed + " copy draws differently");
+            bag.restore(saved);
+            check(draw(bag, DRAWS).equals(original), "seed " + seed + " restored bag draws differently");
+
+            // Two splits of the same bag go their own ways
+            LetterBag parent = new LetterBag(seed);
+            check(!draw(parent.split(), DRAWS).equals(draw(parent.split(), DRAWS)), "seed " + seed + " splits draw the same tiles");
+        }
+
+        // Engines with the same seed deal the same racks to everyone
+        for (long seed = 0; seed < 100; seed++) {
+            GameEngine a = new GameEngine(4, lexicon, seed), b = new GameEngine(4, lexicon, seed);
+            boolean same = true;
+            for (int p = 1; p <= 4; p++) {
+                for (int i = 0; i < GameEngine.RACK_SIZE; i++) same &= a.rackSlot(p, i) == b.rackSlot(p, i);
+            }
+            check(same, "seed " + seed + " deals different racks");
+        }
+    }
+
+    public static void main(String[] args) {
+        LetterBagCheck check = new LetterBagCheck();
+        check.run(SharedDictionary.get());
+        System.out.printf("%d checks, %d failed%n", check.checks, check.failures);
+        if (check.failures > 0) System.exit(1);
+    }
+}
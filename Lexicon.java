@@ -0,0 +1,355 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Compact word list stored as a DAWG (directed acyclic word graph) in a few int arrays
+// Words that share a prefix share the path from the root, and words that share a suffix share the path to the end,
+// so the whole of words.txt fits in a couple of megabytes instead of a HashSet of Strings.
+// Node 0 is the root. For every node, mask holds one bit per letter that has an edge (bit 0 = 'A') plus TERMINAL
+// if a word ends there, and the children are stored in letter order starting at firstEdge.
+public final class Lexicon {
+    public static final int ROOT = 0; // Node every word starts from
+    public static final int NONE = -1; // Returned when there is no edge for a letter
+    public static final int TERMINAL = 1 << 26; // Bit in the node mask meaning "a word ends here"
+    private static final int LETTER_BITS = TERMINAL - 1;
+
+    // Header of a compiled snapshot file: magic number, format version, then the three array lengths and word count
+    private static final int MAGIC = 0x4650544C; // "FPTL"
+    private static final int VERSION = 1; // Bump whenever the layout of the arrays changes
+    private static final int HEADER_BYTES = 6 * 4;
+
+    private final int[] mask; // Letters leaving each node (plus TERMINAL)
+    private final int[] firstEdge; // Index in edgeTarget of each node's first child
+    private final int[] edgeTarget; // Child node of every edge
+    private final int wordCount;
+
+    Lexicon(int[] mask, int[] firstEdge, int[] edgeTarget, int wordCount) {
+        this.mask = mask;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.wordCount = wordCount;
+    }
+
+    // Reads a words file (one word per line) and builds the graph
+    public static Lexicon load(String path) throws IOException {
+        String text = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.US_ASCII);
+        List<String> words = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            words.add(line.trim().toUpperCase()); // trims and turns to uppercase for easier detection
+        }
+        return build(words);
+    }
+
+    // Uses the compiled snapshot if it is up to date, otherwise builds from the text file and rewrites the snapshot
+    public static Lexicon open(String textPath, String snapshotPath) throws IOException {
+        Path text = Paths.get(textPath);
+        Path snapshot = Paths.get(snapshotPath);
+        if (Files.exists(snapshot)
+                && (!Files.exists(text) || Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(text)) >= 0)) {
+            try {
+                return loadSnapshot(snapshot);
+            } catch (IOException e) {
+                // Old version or a broken file, so fall through and rebuild it
+            }
+        }
+        Lexicon lexicon = load(textPath);
+        try {
+            lexicon.save(snapshot);
+        } catch (IOException e) {
+            e.printStackTrace(); // The game still works, it just has to parse words.txt again next time
+        }
+        return lexicon;
+    }
+
+    // Maps a compiled snapshot into memory and copies the arrays straight out (no text parsing)
+    public static Lexicon loadSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Snapshot too small: " + path);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a lexicon snapshot: " + path);
+            if (buffer.getInt() != VERSION) throw new IOException("Unsupported lexicon snapshot version: " + path);
+            int wordCount = buffer.getInt();
+            int nodes = buffer.getInt();
+            int edges = buffer.getInt();
+            buffer.getInt(); // Reserved
+            if (nodes <= 0 || edges < 0 || channel.size() != HEADER_BYTES + 4L * (2L * nodes + edges)) {
+                throw new IOException("Corrupt lexicon snapshot: " + path);
+            }
+
+            IntBuffer ints = buffer.asIntBuffer();
+            int[] mask = new int[nodes];
+            int[] firstEdge = new int[nodes];
+            int[] edgeTarget = new int[edges];
+            ints.get(mask);
+            ints.get(firstEdge);
+            ints.get(edgeTarget);
+            return new Lexicon(mask, firstEdge, edgeTarget, wordCount);
+        }
+    }
+
+    // Writes the arrays to a snapshot file (to a temp file first so a half-written snapshot is never used)
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 4 * (mask.length + firstEdge.length + edgeTarget.length));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(wordCount).putInt(mask.length).putInt(edgeTarget.length).putInt(0);
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.put(mask);
+        ints.put(firstEdge);
+        ints.put(edgeTarget);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Builds the graph from any list of words (words that aren't just A-Z are skipped)
+    public static Lexicon build(Collection<String> words) {
+        String[] sorted = words.toArray(new String[0]);
+        Arrays.sort(sorted); // The builder needs the words in order
+        return new Builder().build(sorted);
+    }
+
+    // Checks if a whole word is in the lexicon
+    public boolean contains(CharSequence word) {
+        int node = walk(word);
+        return node != NONE && isTerminal(node);
+    }
+
+    // Checks if at least one word starts with the given letters
+    public boolean hasPrefix(CharSequence prefix) {
+        return walk(prefix) != NONE;
+    }
+
+    // Follows the letters from the root and returns the node reached (or NONE)
+    public int walk(CharSequence letters) {
+        int node = ROOT;
+        for (int i = 0; i < letters.length() && node != NONE; i++) {
+            node = child(node, letters.charAt(i));
+        }
+        return node;
+    }
+
+    // Follows one letter out of a node (NONE if no word continues that way)
+    public int child(int node, char letter) {
+        int c = letter - 'A';
+        if (c < 0 || c >= 26) return NONE;
+        int m = mask[node];
+        if ((m & (1 << c)) == 0) return NONE;
+        return edgeTarget[firstEdge[node] + Integer.bitCount(m & ((1 << c) - 1))];
+    }
+
+    // Letters that can follow a node, one bit per letter (bit 0 = 'A')
+    public int letters(int node) {
+        return mask[node] & LETTER_BITS;
+    }
+
+    // Checks if a word ends at a node
+    public boolean isTerminal(int node) {
+        return (mask[node] & TERMINAL) != 0;
+    }
+
+    // Checks if any word matches a pattern where BLANK ('*') stands for any letter, without building any Strings
+    // fill (if not null) gets the letter each blank stands for, in order, for the first match found
+    public boolean match(CharSequence pattern, char[] fill) {
+        return matchFrom(ROOT, pattern, 0, fill, 0);
+    }
+
+    private boolean matchFrom(int node, CharSequence pattern, int i, char[] fill, int blanks) {
+        if (i == pattern.length()) return isTerminal(node);
+        char c = pattern.charAt(i);
+        if (c != GameEngine.BLANK) {
+            int next = child(node, c);
+            return next != NONE && matchFrom(next, pattern, i + 1, fill, blanks);
+        }
+        for (int m = letters(node); m != 0; m &= m - 1) { // Only letters some word actually continues with
+            char letter = (char) ('A' + Integer.numberOfTrailingZeros(m));
+            if (matchFrom(child(node, letter), pattern, i + 1, fill, blanks + 1)) {
+                if (fill != null) fill[blanks] = letter;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Letters that can go at one position of a pattern (bit 0 = 'A') so that some word matches
+    // Every other BLANK in the pattern can still be any letter
+    public int wildcardMask(CharSequence pattern, int position) {
+        return maskFrom(ROOT, pattern, 0, position) & LETTER_BITS;
+    }
+
+    // Returns FOUND (TERMINAL) plus the letters usable at position once a match has been seen
+    private int maskFrom(int node, CharSequence pattern, int i, int position) {
+        if (i == pattern.length()) return isTerminal(node) ? TERMINAL : 0;
+        char c = pattern.charAt(i);
+        int options = c == GameEngine.BLANK ? letters(node) : letters(node) & (1 << (c - 'A'));
+        int result = 0;
+        for (int m = options; m != 0; m &= m - 1) {
+            int bit = Integer.numberOfTrailingZeros(m);
+            int found = maskFrom(child(node, (char) ('A' + bit)), pattern, i + 1, position);
+            if (found == 0) continue;
+            if (i == position) {
+                result |= TERMINAL | (1 << bit);
+            } else {
+                result |= found;
+                if (i > position) return result; // The letter at position is already decided, one match is enough
+            }
+        }
+        return result;
+    }
+
+    public int wordCount() { return wordCount; }
+    public int nodeCount() { return mask.length; }
+    public int edgeCount() { return edgeTarget.length; }
+
+    // Rough heap size of the arrays in bytes
+    public long sizeInBytes() {
+        return 4L * (mask.length + firstEdge.length + edgeTarget.length);
+    }
+
+    // Builds a minimal graph from sorted words (Daciuk's incremental algorithm), then flattens it into arrays
+    private static final class Builder {
+        private final Map<Node, Node> register = new HashMap<>(); // Every finished node, so equal ones are shared
+        private final Node root = new Node();
+        private int wordCount = 0;
+
+        Lexicon build(String[] sorted) {
+            String previous = "";
+            for (String word : sorted) {
+                if (word.isEmpty() || word.equals(previous) || !isLetters(word)) continue;
+                add(word);
+                previous = word;
+                wordCount++;
+            }
+            if (root.count > 0) replaceOrRegister(root);
+            return flatten();
+        }
+
+        private static boolean isLetters(String word) {
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (c < 'A' || c > 'Z') return false;
+            }
+            return true;
+        }
+
+        private void add(String word) {
+            Node node = root;
+            int i = 0;
+            while (i < word.length() && node.lastLetter() == word.charAt(i)) { // Longest prefix already in the graph
+                node = node.lastChild();
+                i++;
+            }
+            if (node.count > 0) replaceOrRegister(node); // Everything after the shared prefix is finished
+            for (; i < word.length(); i++) {
+                Node next = new Node();
+                node.add(word.charAt(i), next);
+                node = next;
+            }
+            node.terminal = true;
+        }
+
+        private void replaceOrRegister(Node node) {
+            Node child = node.lastChild();
+            if (child.count > 0) replaceOrRegister(child);
+            Node existing = register.putIfAbsent(child, child);
+            if (existing != null) node.kids[node.count - 1] = existing;
+        }
+
+        private Lexicon flatten() {
+            Map<Node, Integer> ids = new IdentityHashMap<>();
+            List<Node> order = new ArrayList<>();
+            ids.put(root, 0);
+            order.add(root);
+            int edges = 0;
+            for (int i = 0; i < order.size(); i++) { // Breadth first so the root gets 0
+                Node node = order.get(i);
+                edges += node.count;
+                for (int k = 0; k < node.count; k++) {
+                    if (!ids.containsKey(node.kids[k])) {
+                        ids.put(node.kids[k], order.size());
+                        order.add(node.kids[k]);
+                    }
+                }
+            }
+
+            int[] mask = new int[order.size()];
+            int[] firstEdge = new int[order.size()];
+            int[] edgeTarget = new int[edges];
+            int e = 0;
+            for (int i = 0; i < order.size(); i++) {
+                Node node = order.get(i);
+                firstEdge[i] = e;
+                int m = node.terminal ? TERMINAL : 0;
+                for (int k = 0; k < node.count; k++) {
+                    m |= 1 << (node.letters[k] - 'A');
+                    edgeTarget[e++] = ids.get(node.kids[k]);
+                }
+                mask[i] = m;
+            }
+            return new Lexicon(mask, firstEdge, edgeTarget, wordCount);
+        }
+    }
+
+    // Node only used while building (children are added in letter order)
+    private static final class Node {
+        char[] letters = new char[2];
+        Node[] kids = new Node[2];
+        int count = 0;
+        boolean terminal = false;
+        int hash = 0; // Only valid once the node is finished
+
+        void add(char letter, Node child) {
+            if (count == letters.length) {
+                letters = Arrays.copyOf(letters, count * 2);
+                kids = Arrays.copyOf(kids, count * 2);
+            }
+            letters[count] = letter;
+            kids[count++] = child;
+        }
+
+        char lastLetter() { return count == 0 ? 0 : letters[count - 1]; }
+        Node lastChild() { return kids[count - 1]; }
+
+        // Two finished nodes are equal if they end a word the same way and have the very same children
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node)) return false;
+            Node other = (Node) o;
+            if (terminal != other.terminal || count != other.count) return false;
+            for (int i = 0; i < count; i++) {
+                if (letters[i] != other.letters[i] || kids[i] != other.kids[i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            if (hash == 0) {
+                int h = terminal ? 1 : 2;
+                for (int i = 0; i < count; i++) {
+                    h = h * 31 + letters[i];
+                    h = h * 31 + System.identityHashCode(kids[i]);
+                }
+                hash = h == 0 ? 1 : h;
+            }
+            return hash;
+        }
+    }
+
+    // Offline compile step: java FPT.Lexicon [words.txt] [words.dawg]
+    public static void main(String[] args) throws IOException {
+        String textPath = args.length > 0 ? args[0] : "FPT/words.txt";
+        String snapshotPath = args.length > 1 ? args[1] : "FPT/words.dawg";
+        Lexicon lexicon = load(textPath);
+        lexicon.save(Paths.get(snapshotPath));
+        System.out.println("Wrote " + lexicon.wordCount() + " words (" + lexicon.nodeCount() + " nodes, "
+                + lexicon.edgeCount() + " edges) to " + snapshotPath);
+    }
+}
@@ -0,0 +1,107 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+// Works out what the tiles on the board would do (valid or not, the words, the score) and the best moves for the rack,
+// on a background thread so the Swing thread never waits for it
+// Every edit hands over a copy of the engine (a few arrays, copied in microseconds) and gets a new generation number.
+// Only the newest edit matters: older jobs still waiting are cancelled, a running one stops at its next check (the
+// move search checks before each of its 30 lines), and a result that is no longer the newest is thrown away instead
+// of being shown. Results are delivered on the Swing thread.
+// The best moves only depend on the board before this turn and the rack, so they are cached by position hash and
+// placing or taking back tiles in the same turn doesn't search again.
+public class LiveAnalysis {
+    private static final int SUGGESTIONS = 3; // Best moves shown
+
+    // What the board looks like with this turn's tiles on it
+    public static final class Result {
+        public final int[] placedSquares; // Squares that got a tile this turn
+        public final boolean valid; // Legal placement making only real words
+        public final List<String> words; // Every word the tiles make (blanks shown with the letters they would get)
+        public final int score; // Points the tiles would score (0 unless valid)
+        public final List<Move> suggestions; // Best moves for the whole rack, best first
+        public final long nanos; // Time the analysis took
+
+        Result(int[] placedSquares, boolean valid, List<String> words, int score, List<Move> suggestions, long nanos) {
+            this.placedSquares = placedSquares;
+            this.valid = valid;
+            this.words = words;
+            this.score = score;
+            this.suggestions = suggestions;
+            this.nanos = nanos;
+        }
+    }
+
+    private final ParallelMoveSearch search;
+    private final TranspositionCache<List<Move>> suggestionCache = new TranspositionCache<>(256);
+    private final Consumer<Result> listener;
+    private final ExecutorService worker;
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> pending; // Only touched on the Swing thread
+
+    // listener gets every result that is still up to date, on the Swing thread
+    public LiveAnalysis(Lexicon lexicon, Consumer<Result> listener) {
+        this.search = new ParallelMoveSearch(lexicon);
+        this.listener = listener;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "live-analysis");
+            t.setDaemon(true); // Never stops the program from closing
+            t.setPriority(Thread.NORM_PRIORITY - 1); // Painting and input come first
+            return t;
+        });
+    }
+
+    // Analyses the engine as it is now, replacing whatever was asked for before (call on the Swing thread)
+    public void submit(GameEngine engine) {
+        long id = generation.incrementAndGet();
+        GameEngine snapshot = engine.copy();
+        if (pending != null) pending.cancel(false); // Hasn't started yet, or will notice it's stale
+        pending = worker.submit(() -> {
+            Result result = analyse(snapshot, id);
+            if (result != null) SwingUtilities.invokeLater(() -> {
+                if (id == generation.get()) listener.accept(result); // Nothing newer was asked for meanwhile
+            });
+        });
+    }
+
+    // Throws away anything that hasn't been delivered yet (e.g. when the turn ends)
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) pending.cancel(false);
+        pending = null;
+    }
+
+    // Stops the background thread
+    public void close() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    // Checks the placed tiles, then finds the best moves; returns null as soon as a newer edit comes in
+    private Result analyse(GameEngine engine, long id) {
+        long start = System.nanoTime();
+        int[] squares = new int[engine.placedCount()];
+        for (int i = 0; i < squares.length; i++) squares[i] = engine.placedSquare(i);
+        boolean valid = squares.length > 0 && engine.validateWords(); // Gives any blanks their letters
+        List<String> words = squares.length > 0 ? engine.placedWords() : Collections.emptyList();
+        int score = valid ? engine.calculateScore() : 0;
+        if (id != generation.get()) return null;
+
+        engine.resetPlacedTiles(); // Back to the start of the turn, whole rack in hand
+        long key = engine.positionHash();
+        List<Move> suggestions = suggestionCache.get(key);
+        if (suggestions == null) {
+            List<Move> found = search.topMoves(engine, SUGGESTIONS, MoveEvaluator.SCORE, () -> id != generation.get());
+            if (found == null) return null; // Stopped part way, so it isn't cached either
+            suggestions = Collections.unmodifiableList(found);
+            suggestionCache.put(key, suggestions);
+        }
+        if (id != generation.get()) return null;
+        return new Result(squares, valid, words, score, suggestions, System.nanoTime() - start);
+    }
+}
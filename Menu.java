@@ -27,7 +27,9 @@ import java.net.URI;
 
 public class Menu extends JFrame {
     private int playerCount = 2; // Default number of players
+    private int computerCount = 0; // How many of the players are played by the computer
     private JLabel playerCountLabel; // Displays the number of players between the + and -
+    private JButton computerBtn; // Cycles through how many computer players there are
 
     public Menu() {
         setTitle("Scrabble Menu");
@@ -35,14 +37,16 @@ public class Menu extends JFrame {
         setSize(1024, 700); // Size of window
         setResizable(false);
         setLocationRelativeTo(null);
+        SharedDictionary.preload(); // Starts reading the dictionary in the background while the menu is open
+        AnagramIndex.preload(); // Then the index the hints come from, so the first hint doesn't have to build it
 
         // Custom panel to paint background image
         JPanel bgPanel = new JPanel() {
-            Image bg = new ImageIcon("scrabbleMenu.png").getImage(); // Image for the menu background
+            ScaledBackground bg = new ScaledBackground("scrabbleMenu.png"); // Image for the menu background
             @Override
             protected void paintComponent(Graphics g) { // Uses paint component for easy resizing
                 super.paintComponent(g); 
-                g.drawImage(bg, 0, 0, getWidth(), getHeight(), this);
+                bg.paint(g, this, getWidth(), getHeight());
             }
         };
         bgPanel.setLayout(null);
@@ -67,9 +71,13 @@ public class Menu extends JFrame {
 
         // Button actions
         playBtn.addActionListener(e -> {
-            Scrabble x = new Scrabble(playerCount); // Pass actual player count to game constructor
-            x.setVisible(true);
-            dispose(); // Closes current instance
+            if (SharedDictionary.failure() != null) {
+                showDictionaryError(SharedDictionary.failure()); // No game can be played without it
+            } else if (SharedDictionary.isReady()) {
+                startGame();
+            } else {
+                waitForDictionary(); // Only waits if the dictionary is still loading
+            }
         });
         helpBtn.addActionListener(e -> {
             try {
@@ -101,6 +109,8 @@ public class Menu extends JFrame {
             if (playerCount > 2) { // Minimum number of players (2)
                 playerCount--;
                 playerCountLabel.setText(String.valueOf(playerCount));
+                computerCount = Math.min(computerCount, playerCount - 1); // Player 1 is always a person
+                computerBtn.setText("Computers: " + computerCount);
             }
         });
 
@@ -114,9 +124,54 @@ public class Menu extends JFrame {
         bgPanel.add(minusBtn);
         bgPanel.add(plusBtn);
 
+        // Computer player selector (the last seats are taken by the computer)
+        computerBtn = makeMenuButton("Computers: 0", 160, 460, 310, 60);
+        computerBtn.addActionListener(e -> {
+            computerCount = (computerCount + 1) % playerCount; // 0 up to everyone except player 1
+            computerBtn.setText("Computers: " + computerCount);
+        });
+        bgPanel.add(computerBtn);
+
         setContentPane(bgPanel);
     }
 
+    // Starts the game with the chosen number of players
+    private void startGame() {
+        Scrabble x = new Scrabble(playerCount, computerCount); // Pass actual player count to game constructor
+        x.setVisible(true);
+        dispose(); // Closes current instance
+    }
+
+    // Shows a loading bar until the dictionary is ready, then starts the game
+    private void waitForDictionary() {
+        JProgressBar progress = new JProgressBar();
+        progress.setIndeterminate(true);
+        progress.setString("Loading dictionary...");
+        progress.setStringPainted(true);
+
+        JDialog dialog = new JDialog(this, "Please wait", true);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.getContentPane().add(progress);
+        dialog.setSize(300, 80);
+        dialog.setLocationRelativeTo(this);
+        dialog.setResizable(false);
+
+        SharedDictionary.preload().whenComplete((dictionary, error) -> SwingUtilities.invokeLater(() -> {
+            dialog.dispose(); // Closes the loading bar either way (also lets setVisible below return)
+            if (error != null) { // Loading failed (words.txt missing, say), so there's no game to start
+                showDictionaryError(SharedDictionary.failure());
+                return;
+            }
+            startGame();
+        }));
+        dialog.setVisible(true);
+    }
+
+    // Tells the player the dictionary couldn't be loaded
+    private void showDictionaryError(Throwable error) {
+        JOptionPane.showMessageDialog(this, "Could not load the dictionary:\n" + error, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
     // Method to make a button easily
     private JButton makeMenuButton(String text, int x, int y, int w, int h) {
         JButton btn = new JButton(text);
@@ -0,0 +1,258 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import jdk.jfr.*;
+import java.io.*;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Counters and timing histograms for the hot paths, plus a Flight Recorder event for each timed call
+// Nothing is measured unless metrics are switched on (setEnabled, or -Dfpt.metrics=true) or a Flight Recorder
+// recording is running, so when both are off a timed call costs one volatile read. Histograms have one bucket per
+// power of two, so recording is a couple of atomic adds and never allocates. Tallies (how often something happened, like
+// a cache hit) have no histogram at all: counting one is a single add.
+// -Dfpt.metrics.dump=metrics.txt switches metrics on and appends a snapshot to that file every 10 seconds
+// (-Dfpt.metrics.period=<seconds> to change it).
+public final class Metrics {
+    private static final int BUCKETS = 64;
+
+    private static final List<Metric> ALL = new CopyOnWriteArrayList<>();
+    public static final Metric DICTIONARY_LOAD = timer("dictionaryLoad");
+    public static final Metric VALIDATE_WORDS = timer("validateWords");
+    public static final Metric BLANK_VARIANTS = counter("blankVariants"); // Letters tried for blanks per validateWords
+    public static final Metric CALCULATE_SCORE = timer("calculateScore");
+    public static final Metric VALID_SPOTS = timer("recalculateValidSpots");
+    public static final Metric TILE_IMAGE_LOAD = timer("tileImageLoad"); // Reading the PNGs, or scaling them to a new size
+    public static final Metric BOARD_PAINT = timer("boardPaint");
+    public static final Metric CACHE_HITS = tally("cacheHits"); // TranspositionCache lookups that found something, in every cache
+    public static final Metric CACHE_MISSES = tally("cacheMisses");
+
+    private static volatile boolean enabled = Boolean.getBoolean("fpt.metrics");
+    private static volatile boolean recording = false; // A Flight Recorder recording is running
+    private static volatile boolean on = enabled; // Either of the two
+    private static ScheduledExecutorService dumper; // Made the first time dumpEvery is called
+
+    private Metrics() {}
+
+    // Flight Recorder event for one timed call
+    @Name("FPT.Operation")
+    @Label("FPT Operation")
+    @Category("FPT")
+    @StackTrace(false)
+    static final class OperationEvent extends jdk.jfr.Event {
+        @Label("Operation") String operation;
+        @Label("Elapsed") @Timespan(Timespan.NANOSECONDS) long elapsed; // "duration" is taken by Flight Recorder itself
+        @Label("Value") long value; // Depends on the operation (e.g. blank letters tried for validateWords)
+    }
+
+    // One thing being measured: a timer (nanoseconds), a counter of values or a tally
+    public static final class Metric {
+        final String name;
+        final boolean timed;
+        final boolean tally; // Only counted with increment, so there are no values to keep
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS); // Bucket b holds values below 2^b
+
+        Metric(String name, boolean timed, boolean tally) {
+            this.name = name;
+            this.timed = timed;
+            this.tally = tally;
+        }
+
+        // Start time to hand to stop (0 if nothing is being measured)
+        public long start() {
+            return on ? System.nanoTime() : 0;
+        }
+
+        public void stop(long start) {
+            stop(start, 0);
+        }
+
+        // Records the time since start, with a value for the Flight Recorder event
+        public void stop(long start, long value) {
+            if (start == 0) return;
+            long nanos = System.nanoTime() - start;
+            if (enabled) record(nanos);
+            if (recording) {
+                OperationEvent event = new OperationEvent();
+                if (event.shouldCommit()) {
+                    event.operation = name;
+                    event.elapsed = nanos;
+                    event.value = value;
+                    event.commit();
+                }
+            }
+        }
+
+        // Adds a value (a time for timers)
+        public void record(long value) {
+            if (!enabled) return;
+            count.increment();
+            total.add(value);
+            buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(Math.max(value, 0)));
+            long m;
+            while (value > (m = max.get()) && !max.compareAndSet(m, value)) { } // Keeps the largest
+        }
+
+        // Counts one more (for tallies: no total, max or bucket to update)
+        public void increment() {
+            if (enabled) count.increment();
+        }
+
+        Stat stat() {
+            long[] counts = new long[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++) counts[b] = buckets.get(b);
+            return new Stat(name, timed, tally, count.sum(), total.sum(), max.get(), counts);
+        }
+
+        void reset() {
+            count.reset();
+            total.reset();
+            max.set(0);
+            for (int b = 0; b < BUCKETS; b++) buckets.set(b, 0);
+        }
+    }
+
+    // What a metric looked like at one moment
+    public static final class Stat {
+        public final String name;
+        public final boolean timed; // Values are nanoseconds
+        public final boolean tally; // Only count means anything
+        public final long count, total, max;
+        public final long p50, p90, p99; // Upper bound of the bucket each percentile falls in
+        private final long[] buckets;
+
+        Stat(String name, boolean timed, boolean tally, long count, long total, long max, long[] buckets) {
+            this.name = name;
+            this.timed = timed;
+            this.tally = tally;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+            this.buckets = buckets;
+            this.p50 = percentile(0.50);
+            this.p90 = percentile(0.90);
+            this.p99 = percentile(0.99);
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        private long percentile(double fraction) {
+            long wanted = (long) Math.ceil(count * fraction), seen = 0;
+            for (int b = 0; b < buckets.length && wanted > 0; b++) {
+                seen += buckets[b];
+                if (seen >= wanted) return Math.min(b == 0 ? 0 : (1L << b) - 1, max);
+            }
+            return max;
+        }
+
+        // Calls per bucket (bucket b counts values from 2^(b - 1) to 2^b - 1)
+        public long[] buckets() {
+            return buckets.clone();
+        }
+
+        @Override
+        public String toString() {
+            if (tally) return String.format("%-22s count=%d", name, count);
+            if (!timed) return String.format("%-22s count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d", name, count, mean(), p50, p90, p99, max);
+            return String.format("%-22s count=%d total=%.1fms mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus", name, count,
+                    total / 1e6, mean() / 1e3, p50 / 1e3, p90 / 1e3, p99 / 1e3, max / 1e3);
+        }
+    }
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() { // Only listens, never starts Flight Recorder itself
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) { // A recording may have started before this class loaded
+                checkRecordings(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                checkRecordings(FlightRecorder.getFlightRecorder());
+            }
+        });
+        String dump = System.getProperty("fpt.metrics.dump");
+        if (dump != null) dumpEvery(Paths.get(dump), Long.getLong("fpt.metrics.period", 10), TimeUnit.SECONDS);
+    }
+
+    private static void checkRecordings(FlightRecorder recorder) {
+        boolean running = false;
+        for (Recording r : recorder.getRecordings()) running |= r.getState() == RecordingState.RUNNING;
+        recording = running;
+        on = enabled || running;
+    }
+
+    private static Metric timer(String name) {
+        Metric metric = new Metric(name, true, false);
+        ALL.add(metric);
+        return metric;
+    }
+
+    private static Metric counter(String name) {
+        Metric metric = new Metric(name, false, false);
+        ALL.add(metric);
+        return metric;
+    }
+
+    private static Metric tally(String name) {
+        Metric metric = new Metric(name, false, true);
+        ALL.add(metric);
+        return metric;
+    }
+
+    // Switches the counters and histograms on or off (Flight Recorder events only depend on the recording)
+    public static void setEnabled(boolean value) {
+        enabled = value;
+        on = value || recording;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Every metric as it is now, in the order they were declared
+    public static List<Stat> snapshot() {
+        List<Stat> stats = new ArrayList<>(ALL.size());
+        for (Metric metric : ALL) stats.add(metric.stat());
+        return stats;
+    }
+
+    // Sets every metric back to zero
+    public static void reset() {
+        for (Metric metric : ALL) metric.reset();
+    }
+
+    // Writes a snapshot (a timestamp, then one line per metric)
+    public static void dump(Appendable out) throws IOException {
+        out.append("# ").append(Instant.now().toString()).append(System.lineSeparator());
+        for (Stat stat : snapshot()) out.append(stat.toString()).append(System.lineSeparator());
+    }
+
+    // Switches metrics on and appends a snapshot to file every period, on a daemon thread, until the returned task
+    // is cancelled
+    public static synchronized ScheduledFuture<?> dumpEvery(Path file, long period, TimeUnit unit) {
+        setEnabled(true);
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true); // Never stops the program from closing
+                return t;
+            });
+        }
+        return dumper.scheduleAtFixedRate(() -> {
+            try (Writer out = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                dump(out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, period, period, unit);
+    }
+}
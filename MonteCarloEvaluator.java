@@ -0,0 +1,229 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Ranks moves by simulating what happens next instead of just counting their points
+// The best K moves (by equity) are each played out N times on a copy of the board: the next player is given a random
+// rack from the tiles the current player can't see (the bag and every other rack, worked out from what's on the board)
+// and makes their highest scoring reply. A move is worth its points, minus the reply's points, plus its leave, averaged
+// over its rollouts. Rollouts are shared out between the threads of a work-stealing pool, a round at a time (one rollout
+// for every candidate, then the next), and stop when the time budget runs out, so a move always comes back in time.
+// The budget starts before the moves are generated, so finding and picking the candidates is paid for out of it too:
+// if that alone uses it up, the candidates come back ranked by static equity without any rollouts.
+// Late in the game only a few tiles are unseen, so the same reply rack comes up again and again; the best reply for
+// each (board, rack) is kept in a transposition cache so it is only searched for once.
+public class MonteCarloEvaluator {
+    private final Lexicon lexicon;
+    private final ExecutorService pool;
+    private final int threads;
+    private final ThreadLocal<MoveGenerator> generators; // One per thread (the generators have scratch arrays)
+    private final TranspositionCache<Integer> replies = new TranspositionCache<>(1 << 16); // Best reply score by position
+
+    // Result of simulating one candidate
+    public static final class Candidate {
+        public final Move move;
+        public final double equity; // Average over its rollouts (the static equity if it got none, ranked after those that did)
+        public final int rollouts;
+
+        Candidate(Move move, double equity, int rollouts) {
+            this.move = move;
+            this.equity = equity;
+            this.rollouts = rollouts;
+        }
+
+        @Override
+        public String toString() {
+            return move + String.format(" (equity %.1f over %d rollouts)", equity, rollouts);
+        }
+    }
+
+    public MonteCarloEvaluator(Lexicon lexicon) {
+        this(lexicon, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    // Runs rollouts on the calling thread plus the given pool, with up to threads of them at a time (1 uses no pool)
+    public MonteCarloEvaluator(Lexicon lexicon, ExecutorService pool, int threads) {
+        this.lexicon = lexicon;
+        this.pool = pool;
+        this.threads = Math.max(threads, 1);
+        this.generators = ThreadLocal.withInitial(() -> new MoveGenerator(lexicon));
+    }
+
+    // Best move for the current player after simulating (null if there is nothing to play)
+    public Move chooseMove(GameEngine engine, int topK, int rollouts, long budgetMillis, long seed) {
+        List<Candidate> ranked = evaluate(engine, topK, rollouts, budgetMillis, seed);
+        return ranked.isEmpty() ? null : ranked.get(0).move;
+    }
+
+    // Simulates the current player's best topK moves, rollouts times each, best first, all within budgetMillis
+    // The same seed always gives the same rollouts for each candidate, whichever thread runs them
+    public List<Candidate> evaluate(GameEngine engine, int topK, int rollouts, long budgetMillis, long seed) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L; // Generating the candidates counts too
+        char[] rack = rackOf(engine, engine.currentPlayer());
+        List<Move> candidates = topByEquity(generators.get().generate(engine, rack), rack, topK);
+        if (candidates.size() <= 1 || rollouts <= 0 || System.nanoTime() >= deadline) return staticRanking(candidates, rack);
+
+        Position position = new Position(engine, rack);
+        int k = candidates.size();
+        double[] totals = new double[k];
+        int[] counts = new int[k];
+        AtomicInteger next = new AtomicInteger(); // Rollout number i is round i / k of candidate i % k
+        int work = k * rollouts;
+
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < work && System.nanoTime() < deadline) {
+                int c = i % k;
+                double value = rollout(position, candidates.get(c), new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (i / k) + c));
+                synchronized (totals) {
+                    totals[c] += value;
+                    counts[c]++;
+                }
+            }
+        };
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 1; t < Math.min(threads, work); t++) running.add(pool.submit(worker));
+        worker.run(); // The calling thread does its share instead of just waiting (and does it all with one thread)
+        for (Future<?> f : running) {
+            try {
+                f.get(); // Workers check the deadline before every rollout, so this never waits long past it
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                next.set(work); // Stops the rest
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Rollout failed", e.getCause());
+            }
+        }
+
+        // A simulated equity has the reply taken off and a static one doesn't, so they can't be compared: moves the
+        // budget never reached go after the simulated ones, still in static order (which candidates already are in)
+        List<Candidate> ranked = new ArrayList<>(k);
+        List<Candidate> unsampled = new ArrayList<>();
+        synchronized (totals) {
+            for (int c = 0; c < k; c++) {
+                Move move = candidates.get(c);
+                if (counts[c] > 0) ranked.add(new Candidate(move, totals[c] / counts[c], counts[c]));
+                else unsampled.add(new Candidate(move, MoveEvaluator.EQUITY.evaluate(move, rack), 0));
+            }
+        }
+        ranked.sort((a, b) -> Double.compare(b.equity, a.equity));
+        ranked.addAll(unsampled);
+        return ranked;
+    }
+
+    // Plays a candidate on a copy of the board, then gives the next player a random rack and their best reply
+    private double rollout(Position position, Move move, SplittableRandom random) {
+        char[] board = position.board.clone(); // 225 letters and 225 flags: cheaper than copying a whole engine
+        boolean[] blanks = position.blanks.clone();
+        long hash = position.boardHash;
+        for (int i = 0; i < move.word.length(); i++) {
+            if (!move.isNewTile(i)) continue;
+            board[move.square(i)] = move.word.charAt(i);
+            blanks[move.square(i)] = move.isBlank(i);
+            hash ^= Zobrist.square(move.square(i), move.word.charAt(i), move.isBlank(i));
+        }
+
+        char[] unseen = position.unseen.clone();
+        int size = Math.min(position.opponentRackSize, unseen.length);
+        for (int i = 0; i < size; i++) { // Partial Fisher-Yates: the first size tiles are a random rack
+            int j = i + random.nextInt(unseen.length - i);
+            char tmp = unseen[i];
+            unseen[i] = unseen[j];
+            unseen[j] = tmp;
+        }
+        char[] opponentRack = Arrays.copyOf(unseen, size);
+
+        long key = hash ^ Long.rotateLeft(Zobrist.rack(opponentRack), 1);
+        Integer reply = replies.get(key);
+        if (reply == null) {
+            int best = 0;
+            for (Move m : generators.get().generate(board, blanks, opponentRack)) best = Math.max(best, m.score);
+            reply = best;
+            replies.put(key, reply);
+        }
+        return move.score - reply + RackLeave.value(move, position.rack);
+    }
+
+    // Reply cache (for its hit rate)
+    public TranspositionCache<Integer> replyCache() {
+        return replies;
+    }
+
+    // The current player's rack letters
+    private static char[] rackOf(GameEngine engine, int player) {
+        char[] rack = new char[GameEngine.RACK_SIZE];
+        for (int i = 0; i < rack.length; i++) rack[i] = engine.rackSlot(player, i);
+        return rack;
+    }
+
+    // The k moves with the best static equity, best first
+    // Only the best k are kept while going through the moves (insertion into a short sorted array), so a rack with
+    // thousands of moves doesn't sort or wrap every one of them
+    private static List<Move> topByEquity(List<Move> moves, char[] rack, int k) {
+        k = Math.min(k, moves.size());
+        Move[] top = new Move[k];
+        double[] values = new double[k];
+        int size = 0;
+        for (Move move : moves) {
+            double value = MoveEvaluator.EQUITY.evaluate(move, rack);
+            if (size == k && (k == 0 || value <= values[k - 1])) continue; // Not better than the worst kept
+            int i = size < k ? size++ : k - 1;
+            while (i > 0 && values[i - 1] < value) { // Shifts the worse ones down a place
+                top[i] = top[i - 1];
+                values[i] = values[i - 1];
+                i--;
+            }
+            top[i] = move;
+            values[i] = value;
+        }
+        return Arrays.asList(top);
+    }
+
+    private static List<Candidate> staticRanking(List<Move> moves, char[] rack) {
+        List<Candidate> ranked = new ArrayList<>(moves.size());
+        for (Move move : moves) ranked.add(new Candidate(move, MoveEvaluator.EQUITY.evaluate(move, rack), 0));
+        ranked.sort((a, b) -> Double.compare(b.equity, a.equity));
+        return ranked;
+    }
+
+    // Everything a rollout needs from the game, copied once so the engine is free to change afterwards
+    private static final class Position {
+        final char[] board = new char[GameEngine.SQUARES];
+        final boolean[] blanks = new boolean[GameEngine.SQUARES];
+        final long boardHash;
+        final char[] rack; // The current player's
+        final char[] unseen; // Bag plus every other player's rack
+        final int opponentRackSize; // Tiles the next player is holding
+
+        Position(GameEngine engine, char[] rack) {
+            this.rack = rack;
+            this.boardHash = engine.boardHash();
+            int[] counts = GameEngine.COUNTS.clone();
+            for (int square = 0; square < GameEngine.SQUARES; square++) {
+                board[square] = engine.letterAt(square);
+                blanks[square] = engine.isBlank(square);
+                if (board[square] != GameEngine.EMPTY) counts[GameEngine.letterIndex(blanks[square] ? GameEngine.BLANK : board[square])]--;
+            }
+            for (char c : rack) {
+                if (c != GameEngine.EMPTY) counts[GameEngine.letterIndex(c)]--;
+            }
+            int total = 0;
+            for (int count : counts) total += Math.max(count, 0);
+            unseen = new char[total];
+            int n = 0;
+            for (int i = 0; i < counts.length; i++) {
+                for (int j = 0; j < counts[i]; j++) unseen[n++] = GameEngine.LETTERS[i];
+            }
+
+            int opponent = engine.currentPlayer() % engine.numPlayers() + 1;
+            int size = 0;
+            for (int i = 0; i < GameEngine.RACK_SIZE; i++) {
+                if (engine.rackSlot(opponent, i) != GameEngine.EMPTY) size++;
+            }
+            opponentRackSize = size;
+        }
+    }
+}
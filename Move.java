@@ -0,0 +1,53 @@
+package FPT; // The folder containing all the other files in the project
+
+// One complete play: a word laid across or down starting at (row, col)
+// Bit i of tiles is set if letter i of the word comes from the rack (the rest were already on the board),
+// and bit i of blanks is set if that rack tile is a blank standing for the letter in the word
+public final class Move {
+    public final int row, col; // Square of the first letter of the word
+    public final boolean across; // true = left to right, false = top to bottom
+    public final String word; // The whole main word, board letters included
+    public final int tiles; // Positions in the word that get a new tile
+    public final int blanks; // Positions in the word that get a blank
+    public final int score; // Points the move is worth (main word plus every cross-word)
+
+    public Move(int row, int col, boolean across, String word, int tiles, int blanks, int score) {
+        this.row = row;
+        this.col = col;
+        this.across = across;
+        this.word = word;
+        this.tiles = tiles;
+        this.blanks = blanks;
+        this.score = score;
+    }
+
+    // Square of letter i of the word
+    public int square(int i) {
+        return across ? row * GameEngine.BOARD_SIZE + col + i : (row + i) * GameEngine.BOARD_SIZE + col;
+    }
+
+    // Number of tiles taken from the rack
+    public int tileCount() {
+        return Integer.bitCount(tiles);
+    }
+
+    // Checks if letter i of the word is a new tile
+    public boolean isNewTile(int i) {
+        return (tiles & (1 << i)) != 0;
+    }
+
+    // Checks if letter i of the word is a blank from the rack
+    public boolean isBlank(int i) {
+        return (blanks & (1 << i)) != 0;
+    }
+
+    // Letter the rack has to give up for position i (BLANK for blanks)
+    public char rackLetter(int i) {
+        return isBlank(i) ? GameEngine.BLANK : word.charAt(i);
+    }
+
+    @Override
+    public String toString() {
+        return word + " at " + (char) ('A' + col) + (row + 1) + (across ? " across" : " down") + " for " + score;
+    }
+}
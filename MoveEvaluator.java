@@ -0,0 +1,12 @@
+package FPT; // The folder containing all the other files in the project
+
+// How good a move is for the player making it, so moves can be ranked (higher is better)
+public interface MoveEvaluator {
+    double evaluate(Move move, char[] rack);
+
+    // Just the points
+    MoveEvaluator SCORE = (move, rack) -> move.score;
+
+    // Points plus the worth of the tiles left behind on the rack
+    MoveEvaluator EQUITY = (move, rack) -> move.score + RackLeave.value(move, rack);
+}
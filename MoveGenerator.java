@@ -0,0 +1,290 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+
+// Lists every legal play for a rack (Appel-Jacobson style)
+// Words are grown out of anchor squares (empty squares next to a tile, or the middle square on the first move),
+// left part first and then to the right, following the DAWG so dead ends are cut off straight away.
+// Each empty square has a cross-check mask: the letters that make a valid word in the other direction.
+// A generator keeps its own scratch arrays, so use one per thread.
+public class MoveGenerator {
+    private static final int N = GameEngine.BOARD_SIZE;
+    private static final int BLANK = 26; // Index of the blank in rack counts
+    static final int LINE_TASKS = 2 * N; // One per row and one per column
+
+    private final Lexicon lexicon;
+    private final CrossChecks ownChecks; // Worked out here when the board doesn't come from an engine
+    private CrossChecks checks; // Cross-checks for the board being searched
+
+    // Board being searched (copied in at the start of every generate call)
+    private final char[] board = new char[GameEngine.SQUARES];
+    private final boolean[] blankOnBoard = new boolean[GameEngine.SQUARES];
+    private final int[] rack = new int[27]; // How many of each letter (and blanks) are left to play
+    private final Bitboard occupied = new Bitboard();
+    private final Bitboard anchors = new Bitboard(); // Empty squares next to a tile (or the middle square)
+
+    // One line (row or column) at a time
+    private final char[] line = new char[N];
+    private final int[] crossMask = new int[N]; // Letters allowed on each square of the line
+    private final int[] crossScore = new int[N]; // Points of the tiles touching the square from the other direction
+    private final boolean[] hasCross = new boolean[N]; // Checks if a tile here would also make a cross-word
+    private final boolean[] anchor = new boolean[N];
+    private int lineIndex;
+    private boolean across;
+
+    // The word being built
+    private final char[] word = new char[N];
+    private final boolean[] wordIsNew = new boolean[N];
+    private final boolean[] wordIsBlank = new boolean[N];
+    private int anchorPos;
+
+    private List<Move> out;
+
+    public MoveGenerator(Lexicon lexicon) {
+        this.lexicon = lexicon;
+        this.ownChecks = new CrossChecks(lexicon);
+    }
+
+    // Every legal move for the current player of a game
+    public List<Move> generate(GameEngine engine) {
+        char[] tiles = new char[GameEngine.RACK_SIZE];
+        for (int i = 0; i < tiles.length; i++) tiles[i] = engine.rackSlot(engine.currentPlayer(), i);
+        return generate(engine, tiles);
+    }
+
+    // Every legal move for the given rack letters on a game's board
+    public List<Move> generate(GameEngine engine, char[] rackLetters) {
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            board[square] = engine.letterAt(square);
+            blankOnBoard[square] = engine.isBlank(square);
+        }
+        checks = engine.crossChecks(); // The engine keeps these up to date, so nothing to work out
+        return search(rackLetters);
+    }
+
+    // Every legal move for a rack on a board (board[square] is EMPTY or a letter, blanks marks blank tiles)
+    public List<Move> generate(char[] boardLetters, boolean[] blanks, char[] rackLetters) {
+        if (boardLetters != board) System.arraycopy(boardLetters, 0, board, 0, board.length);
+        if (blanks != blankOnBoard) System.arraycopy(blanks, 0, blankOnBoard, 0, blankOnBoard.length);
+        ownChecks.computeAll(board, blankOnBoard);
+        checks = ownChecks;
+        return search(rackLetters);
+    }
+
+    // Runs the search over every line in both directions
+    private List<Move> search(char[] rackLetters) {
+        loadRack(rackLetters);
+        List<Move> result = new ArrayList<>();
+        for (int task = 0; task < LINE_TASKS; task++) searchLine(task, result);
+        checks = null;
+        return result;
+    }
+
+    // Copies in a board, its cross-checks and a rack so searchLine can be called (used by ParallelMoveSearch,
+    // where every worker has its own generator but they all read the same checks)
+    void prepare(char[] boardLetters, boolean[] blanks, CrossChecks boardChecks, char[] rackLetters) {
+        System.arraycopy(boardLetters, 0, board, 0, board.length);
+        System.arraycopy(blanks, 0, blankOnBoard, 0, blankOnBoard.length);
+        checks = boardChecks;
+        loadRack(rackLetters);
+    }
+
+    // Counts the rack letters and works out the anchors for the board that was copied in
+    private void loadRack(char[] rackLetters) {
+        Arrays.fill(rack, 0);
+        for (char c : rackLetters) {
+            if (c != GameEngine.EMPTY) rack[GameEngine.letterIndex(c)]++;
+        }
+        occupied.clearAll();
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            if (board[square] != GameEngine.EMPTY) occupied.set(square);
+        }
+        anchors.clearAll();
+        if (occupied.isEmpty()) {
+            anchors.set(GameEngine.CENTER);
+        } else {
+            anchors.neighboursOf(occupied);
+            anchors.andNot(occupied);
+        }
+    }
+
+    // Adds every move along one line to results (tasks 0-14 are the rows across, 15-29 the columns down)
+    void searchLine(int task, List<Move> results) {
+        across = task < N;
+        lineIndex = task % N;
+        out = results;
+        loadLine();
+        for (int pos = 0; pos < N; pos++) {
+            if (anchor[pos]) generateAtAnchor(pos);
+        }
+        out = null;
+    }
+
+    // Highest scoring move (null if there isn't one)
+    public Move best(GameEngine engine) {
+        Move best = null;
+        for (Move move : generate(engine)) {
+            if (best == null || move.score > best.score) best = move;
+        }
+        return best;
+    }
+
+    // Square of position pos on the current line
+    private int square(int pos) {
+        return across ? lineIndex * N + pos : pos * N + lineIndex;
+    }
+
+    // Fills in the letters, anchors and cross-checks for the current line
+    private void loadLine() {
+        for (int pos = 0; pos < N; pos++) {
+            int sq = square(pos);
+            line[pos] = board[sq];
+            crossMask[pos] = across ? checks.across[sq] : checks.down[sq];
+            crossScore[pos] = across ? checks.acrossScore[sq] : checks.downScore[sq];
+            hasCross[pos] = crossScore[pos] != CrossChecks.NO_CROSS;
+            anchor[pos] = anchors.get(sq);
+        }
+    }
+
+    // Starts every word that covers an anchor square
+    private void generateAtAnchor(int pos) {
+        anchorPos = pos;
+        if (pos > 0 && line[pos - 1] != GameEngine.EMPTY) { // Tiles to the left are a fixed prefix
+            int start = pos - 1;
+            while (start > 0 && line[start - 1] != GameEngine.EMPTY) start--;
+            int node = Lexicon.ROOT;
+            for (int p = start; p < pos && node != Lexicon.NONE; p++) {
+                node = lexicon.child(node, line[p]);
+                word[p] = line[p];
+                wordIsNew[p] = false;
+                wordIsBlank[p] = false;
+            }
+            if (node != Lexicon.NONE) extendRight(node, pos, start, 0);
+            return;
+        }
+
+        int limit = 0; // Empty non-anchor squares to the left can hold the left part
+        while (pos - limit - 1 >= 0 && line[pos - limit - 1] == GameEngine.EMPTY && !anchor[pos - limit - 1]) limit++;
+        leftPart(Lexicon.ROOT, 0, limit);
+    }
+
+    // Builds every left part of up to limit tiles (the squares it goes on have no cross-words), then extends right
+    private void leftPart(int node, int length, int limit) {
+        int start = anchorPos - length;
+        extendRight(node, anchorPos, start, length);
+        if (length == limit) return;
+
+        // The left part is written ending right before the anchor, so shift what is there one square left
+        for (int m = lexicon.letters(node); m != 0; m &= m - 1) {
+            int bit = Integer.numberOfTrailingZeros(m);
+            char letter = (char) ('A' + bit);
+            int next = lexicon.child(node, letter);
+            if (rack[bit] > 0) {
+                rack[bit]--;
+                pushLeft(start, letter, false);
+                leftPart(next, length + 1, limit);
+                popLeft(start);
+                rack[bit]++;
+            }
+            if (rack[BLANK] > 0) {
+                rack[BLANK]--;
+                pushLeft(start, letter, true);
+                leftPart(next, length + 1, limit);
+                popLeft(start);
+                rack[BLANK]++;
+            }
+        }
+    }
+
+    // Adds a letter to the end of the left part (everything before it moves one square left)
+    private void pushLeft(int start, char letter, boolean blank) {
+        for (int p = start - 1; p < anchorPos - 1; p++) {
+            word[p] = word[p + 1];
+            wordIsBlank[p] = wordIsBlank[p + 1];
+            wordIsNew[p] = true;
+        }
+        word[anchorPos - 1] = letter;
+        wordIsBlank[anchorPos - 1] = blank;
+        wordIsNew[anchorPos - 1] = true;
+    }
+
+    // Undoes pushLeft
+    private void popLeft(int start) {
+        for (int p = anchorPos - 1; p > start - 1; p--) {
+            word[p] = word[p - 1];
+            wordIsBlank[p] = wordIsBlank[p - 1];
+        }
+    }
+
+    // Adds letters from pos onwards, recording a move whenever a word ends after the anchor has been covered
+    private void extendRight(int node, int pos, int start, int placed) {
+        if (pos >= N || line[pos] == GameEngine.EMPTY) {
+            if (pos > anchorPos && placed > 0 && lexicon.isTerminal(node)) record(start, pos - start, placed);
+            if (pos >= N) return;
+
+            int allowed = lexicon.letters(node) & crossMask[pos];
+            for (int m = allowed; m != 0; m &= m - 1) {
+                int bit = Integer.numberOfTrailingZeros(m);
+                char letter = (char) ('A' + bit);
+                int next = lexicon.child(node, letter);
+                word[pos] = letter;
+                wordIsNew[pos] = true;
+                if (rack[bit] > 0) {
+                    rack[bit]--;
+                    wordIsBlank[pos] = false;
+                    extendRight(next, pos + 1, start, placed + 1);
+                    rack[bit]++;
+                }
+                if (rack[BLANK] > 0) {
+                    rack[BLANK]--;
+                    wordIsBlank[pos] = true;
+                    extendRight(next, pos + 1, start, placed + 1);
+                    rack[BLANK]++;
+                }
+            }
+        } else {
+            int next = lexicon.child(node, line[pos]);
+            if (next == Lexicon.NONE) return;
+            word[pos] = line[pos];
+            wordIsNew[pos] = false;
+            wordIsBlank[pos] = false;
+            extendRight(next, pos + 1, start, placed);
+        }
+    }
+
+    // Scores the word in word[start..start+length) and adds it to the results
+    private void record(int start, int length, int placed) {
+        if (!across && placed == 1) { // A single tile with a word across it was already found in the across pass
+            for (int p = start; p < start + length; p++) {
+                if (wordIsNew[p] && hasCross[p]) return;
+            }
+        }
+
+        int mainScore = 0, wordMultiplier = 1, crossTotal = 0, tiles = 0, blanks = 0;
+        for (int i = 0; i < length; i++) {
+            int p = start + i;
+            int value = wordIsBlank[p] || (!wordIsNew[p] && blankOnBoard[square(p)]) ? 0 : GameEngine.letterValue(word[p]);
+            if (!wordIsNew[p]) {
+                mainScore += value;
+                continue;
+            }
+            tiles |= 1 << i;
+            if (wordIsBlank[p]) blanks |= 1 << i;
+            int letterMultiplier = 1, squareMultiplier = 1;
+            switch (GameEngine.bonusAt(square(p))) {
+                case GameEngine.DOUBLE_LETTER -> letterMultiplier = 2;
+                case GameEngine.TRIPLE_LETTER -> letterMultiplier = 3;
+                case GameEngine.DOUBLE_WORD -> squareMultiplier = 2;
+                case GameEngine.TRIPLE_WORD -> squareMultiplier = 3;
+            }
+            mainScore += value * letterMultiplier;
+            wordMultiplier *= squareMultiplier;
+            if (hasCross[p]) crossTotal += (crossScore[p] + value * letterMultiplier) * squareMultiplier;
+        }
+
+        int first = square(start);
+        out.add(new Move(first / N, first % N, across, new String(word, start, length), tiles, blanks,
+                mainScore * wordMultiplier + crossTotal));
+    }
+}
@@ -0,0 +1,207 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.*;
+
+// A game played on a GameServer: same board and tiles as Scrabble, but every click is sent to the server
+// and the screen is redrawn from the states it sends back (the rules all run on the server)
+//
+// java FPT.NetworkScrabble [host] [port] [game id] [players]   (game id 0, the default, starts a new game)
+public class NetworkScrabble extends JFrame implements GameClient.Listener {
+    private static final int RACK_SIZE = GameEngine.RACK_SIZE;
+    private static final int CELL_SIZE = 60;
+    private static final int TILE_SIZE = 120;
+    private static final int RACK_ICON_SIZE = TILE_SIZE * 5 / 8;
+    private static final Font FONT = new Font("Segoe Script", Font.BOLD, 24);
+
+    private final GameClient client;
+    private GameClient.RemoteGame game; // Latest state from the server (only touched on the EDT)
+    private BoardComponent boardPanel;
+    private final RoundedButton[] playerRack = new RoundedButton[RACK_SIZE];
+    private RoundedButton submitButton, resetButton, passButton;
+    private JLabel turnLabel, scoresLabel, letterBagLabel, gameLabel;
+    private char selectedTile = ' ';
+
+    public NetworkScrabble(String host, int port, int gameId, int players) throws IOException {
+        setupUI();
+        client = GameClient.connect(host, port, this);
+        client.join(gameId, players);
+    }
+
+    // Board on the left, game info, rack and buttons on the right
+    private void setupUI() {
+        setTitle("Scrabble (online)");
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setSize(1600, 927);
+        setResizable(false);
+        setLocationRelativeTo(null);
+
+        JLayeredPane mainPanel = new JLayeredPane();
+        mainPanel.setLayout(null);
+        JPanel greenPanel = new JPanel() {
+            ScaledBackground bg = new ScaledBackground("background.png");
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                bg.paint(g, this, 1600, 900);
+            }
+        };
+        greenPanel.setBounds(0, 0, 1600, 900);
+
+        boardPanel = new BoardComponent(new GameClient.RemoteGame(0, 0, 2), CELL_SIZE, this::squareClicked); // Empty until the server answers
+        boardPanel.setBounds(0, 0, 900, 900);
+        boardPanel.setShowHighlights(true);
+        mainPanel.add(boardPanel);
+
+        gameLabel = label("Connecting...", 917, 20, 660);
+        turnLabel = label("", 917, 70, 660);
+        scoresLabel = label("", 917, 120, 660);
+        letterBagLabel = label("", 917, 170, 660);
+        mainPanel.add(gameLabel);
+        mainPanel.add(turnLabel);
+        mainPanel.add(scoresLabel);
+        mainPanel.add(letterBagLabel);
+
+        JPanel rackPanel = new JPanel();
+        rackPanel.setOpaque(false);
+        rackPanel.setBounds(952, 300, 600, 260);
+        for (int i = 0; i < RACK_SIZE; i++) {
+            RoundedButton tile = new RoundedButton("");
+            tile.setPreferredSize(new Dimension(TILE_SIZE, TILE_SIZE));
+            tile.addActionListener(e -> {
+                if (!tile.getText().isEmpty() && game != null && game.isMyTurn()) selectedTile = tile.getText().charAt(0);
+            });
+            playerRack[i] = tile;
+            rackPanel.add(tile);
+        }
+        mainPanel.add(rackPanel);
+
+        resetButton = controlButton("Reset", 1035, e -> send(client::reset));
+        submitButton = controlButton("Submit", 1160, e -> send(client::submit));
+        passButton = controlButton("Pass", 1300, e -> send(client::pass));
+        mainPanel.add(resetButton);
+        mainPanel.add(submitButton);
+        mainPanel.add(passButton);
+
+        setContentPane(mainPanel);
+        mainPanel.add(greenPanel); // Behind everything else
+        updateButtons();
+    }
+
+    private JLabel label(String text, int x, int y, int width) {
+        JLabel label = new JLabel(text);
+        label.setFont(FONT);
+        label.setForeground(Color.WHITE);
+        label.setBounds(x, y, width, 40);
+        return label;
+    }
+
+    private RoundedButton controlButton(String text, int x, ActionListener listener) {
+        RoundedButton btn = new RoundedButton(text);
+        btn.setFont(new Font("Segoe Script", Font.BOLD, 20));
+        btn.setForeground(Color.WHITE);
+        btn.setBackground(new Color(60, 60, 60, 200));
+        btn.setBounds(x, 600, 120, 60);
+        btn.addActionListener(listener);
+        return btn;
+    }
+
+    // Something to send to the server
+    private interface Request {
+        void send() throws IOException;
+    }
+
+    private void send(Request request) {
+        try {
+            request.send();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Lost connection to the server.");
+        }
+    }
+
+    private void squareClicked(int row, int col) {
+        if (game == null || !game.isMyTurn() || selectedTile == ' ' || !game.isValidSpot(row, col)) return;
+        char letter = selectedTile;
+        selectedTile = ' ';
+        send(() -> client.place(letter, row * GameEngine.BOARD_SIZE + col));
+    }
+
+    // Shows a new state from the server (EDT only)
+    private void show(GameClient.RemoteGame next) {
+        game = next;
+        boardPanel.updateEngine(next); // Only the squares that changed are repainted
+        for (int i = 0; i < RACK_SIZE; i++) {
+            char c = next.rackSlot(i);
+            playerRack[i].setText(c != GameEngine.EMPTY ? String.valueOf(c) : "");
+            playerRack[i].setIcon(c != GameEngine.EMPTY ? TileImages.icon(c, RACK_ICON_SIZE) : null);
+        }
+        StringBuilder scores = new StringBuilder();
+        for (int player = 1; player <= next.numPlayers; player++) {
+            scores.append(player == next.seat ? "You: " : "P" + player + ": ").append(next.score(player)).append("   ");
+        }
+        scoresLabel.setText(scores.toString());
+        letterBagLabel.setText("Letter Bag: " + next.bagSize() + "   Round " + next.round());
+        if (next.isGameOver()) turnLabel.setText("Game over");
+        else if (!next.isStarted()) turnLabel.setText("Waiting for players...");
+        else turnLabel.setText(next.isMyTurn() ? "Your turn" : "Player " + next.currentPlayer() + "'s turn");
+        updateButtons();
+    }
+
+    private void updateButtons() {
+        boolean myTurn = game != null && game.isMyTurn();
+        resetButton.setEnabled(myTurn);
+        submitButton.setEnabled(myTurn);
+        passButton.setEnabled(myTurn);
+    }
+
+    @Override
+    public void welcome(int gameId, int seat, int players) {
+        SwingUtilities.invokeLater(() -> gameLabel.setText("Game " + gameId + ", you are player " + seat + " of " + players));
+    }
+
+    @Override
+    public void stateChanged(GameClient.RemoteGame next) {
+        SwingUtilities.invokeLater(() -> show(next));
+    }
+
+    @Override
+    public void error(String message) {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, message));
+    }
+
+    @Override
+    public void disconnected() {
+        SwingUtilities.invokeLater(() -> {
+            if (isDisplayable()) gameLabel.setText("Disconnected from the server");
+            game = null;
+            updateButtons();
+        });
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        super.dispose();
+    }
+
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int gameId = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int players = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        SwingUtilities.invokeLater(() -> {
+            try {
+                new NetworkScrabble(host, port, gameId, players).setVisible(true);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(null, "Couldn't connect to " + host + ":" + port);
+            }
+        });
+    }
+}
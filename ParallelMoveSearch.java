@@ -0,0 +1,181 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+// Move search split across the threads of a ForkJoinPool
+// The 30 lines of the board (15 rows across, 15 columns down) are split in half again and again into fork-join tasks.
+// Every worker thread has its own MoveGenerator (so its own scratch arrays), all of them read the same board snapshot
+// and cross-checks, and each task keeps only its best N moves, which are merged on the way back up.
+// The engine must not change while a search is running. A search can be given a cancelled check, which every task
+// asks before it starts on its line, so a search nobody wants any more stops within a line or so.
+public class ParallelMoveSearch {
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<MoveGenerator> generators; // One per worker thread
+    private final CrossChecks ownChecks; // Worked out here when the board doesn't come from an engine
+
+    public ParallelMoveSearch(Lexicon lexicon) {
+        this(lexicon, ForkJoinPool.commonPool());
+    }
+
+    public ParallelMoveSearch(Lexicon lexicon, ForkJoinPool pool) {
+        this.pool = pool;
+        this.generators = ThreadLocal.withInitial(() -> new MoveGenerator(lexicon));
+        this.ownChecks = new CrossChecks(lexicon);
+    }
+
+    // Best n moves for the current player of a game, best first
+    public List<Move> topMoves(GameEngine engine, int n, MoveEvaluator evaluator) {
+        return topMoves(engine, n, evaluator, NEVER);
+    }
+
+    // The same, but gives up and returns null once cancelled says so
+    public List<Move> topMoves(GameEngine engine, int n, MoveEvaluator evaluator, BooleanSupplier cancelled) {
+        char[] rack = new char[GameEngine.RACK_SIZE];
+        for (int i = 0; i < rack.length; i++) rack[i] = engine.rackSlot(engine.currentPlayer(), i);
+        return topMoves(engine, rack, n, evaluator, cancelled);
+    }
+
+    // Best n moves for a rack on a game's board, best first
+    public List<Move> topMoves(GameEngine engine, char[] rack, int n, MoveEvaluator evaluator) {
+        return topMoves(engine, rack, n, evaluator, NEVER);
+    }
+
+    // The same, but gives up and returns null once cancelled says so
+    public List<Move> topMoves(GameEngine engine, char[] rack, int n, MoveEvaluator evaluator, BooleanSupplier cancelled) {
+        char[] board = new char[GameEngine.SQUARES];
+        boolean[] blanks = new boolean[GameEngine.SQUARES];
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            board[square] = engine.letterAt(square);
+            blanks[square] = engine.isBlank(square);
+        }
+        return run(new Search(board, blanks, engine.crossChecks(), rack.clone(), n, evaluator, cancelled));
+    }
+
+    // Best n moves for a rack on a board (board[square] is EMPTY or a letter, blanks marks blank tiles), best first
+    public synchronized List<Move> topMoves(char[] board, boolean[] blanks, char[] rack, int n, MoveEvaluator evaluator) {
+        ownChecks.computeAll(board, blanks);
+        return run(new Search(board.clone(), blanks.clone(), ownChecks, rack.clone(), n, evaluator, NEVER));
+    }
+
+    // Best move for the current player by points (null if there isn't one)
+    public Move best(GameEngine engine) {
+        List<Move> moves = topMoves(engine, 1, MoveEvaluator.SCORE);
+        return moves.isEmpty() ? null : moves.get(0);
+    }
+
+    // Runs the whole search in the pool and sorts what is left (null if it was cancelled, as some lines were skipped)
+    private List<Move> run(Search search) {
+        if (search.n <= 0) return new ArrayList<>();
+        TopMoves top = pool.invoke(new LineTask(search, 0, MoveGenerator.LINE_TASKS));
+        return search.cancelled.getAsBoolean() ? null : top.sorted();
+    }
+
+    // Everything the tasks of one search share (never written to once the search starts)
+    private static final class Search {
+        final char[] board;
+        final boolean[] blanks;
+        final CrossChecks checks;
+        final char[] rack;
+        final int n;
+        final MoveEvaluator evaluator;
+        final BooleanSupplier cancelled; // Asked before every line
+
+        Search(char[] board, boolean[] blanks, CrossChecks checks, char[] rack, int n, MoveEvaluator evaluator,
+               BooleanSupplier cancelled) {
+            this.board = board;
+            this.blanks = blanks;
+            this.checks = checks;
+            this.rack = rack;
+            this.n = n;
+            this.evaluator = evaluator;
+            this.cancelled = cancelled;
+        }
+    }
+
+    // Searches lines [from, to), splitting in half until there is one line left
+    private final class LineTask extends RecursiveTask<TopMoves> {
+        private final Search search;
+        private final int from, to;
+
+        LineTask(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopMoves compute() {
+            if (to - from == 1) return searchLine();
+            int middle = (from + to) >>> 1;
+            LineTask left = new LineTask(search, from, middle);
+            left.fork();
+            TopMoves right = new LineTask(search, middle, to).compute();
+            return right.mergeFrom(left.join());
+        }
+
+        // Runs this worker's own generator over a single line (or nothing, once the search has been cancelled)
+        private TopMoves searchLine() {
+            if (search.cancelled.getAsBoolean()) return new TopMoves(search.n);
+            MoveGenerator generator = generators.get();
+            generator.prepare(search.board, search.blanks, search.checks, search.rack);
+            List<Move> moves = new ArrayList<>();
+            generator.searchLine(from, moves);
+            TopMoves top = new TopMoves(search.n);
+            for (Move move : moves) top.offer(move, search.evaluator.evaluate(move, search.rack));
+            return top;
+        }
+    }
+
+    // The best n moves seen so far (a min-heap, so the worst one is the one pushed out)
+    private static final class TopMoves {
+        private final int n;
+        private final PriorityQueue<Ranked> heap;
+
+        TopMoves(int n) {
+            this.n = n;
+            this.heap = new PriorityQueue<>(n + 1);
+        }
+
+        void offer(Move move, double value) {
+            Ranked ranked = new Ranked(move, value);
+            if (heap.size() == n && ranked.compareTo(heap.peek()) <= 0) return; // Not good enough to make the list
+            heap.add(ranked);
+            if (heap.size() > n) heap.poll();
+        }
+
+        TopMoves mergeFrom(TopMoves other) {
+            for (Ranked r : other.heap) offer(r.move, r.value);
+            return this;
+        }
+
+        List<Move> sorted() {
+            Ranked[] ranked = heap.toArray(new Ranked[0]);
+            Arrays.sort(ranked, Collections.reverseOrder());
+            List<Move> moves = new ArrayList<>(ranked.length);
+            for (Ranked r : ranked) moves.add(r.move);
+            return moves;
+        }
+    }
+
+    // A move and how good the evaluator thinks it is (ties go to the higher score)
+    private static final class Ranked implements Comparable<Ranked> {
+        final Move move;
+        final double value;
+
+        Ranked(Move move, double value) {
+            this.move = move;
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Ranked other) {
+            int c = Double.compare(value, other.value);
+            return c != 0 ? c : Integer.compare(move.score, other.move.score);
+        }
+    }
+}
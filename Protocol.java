@@ -0,0 +1,75 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+
+// Messages between GameServer and GameClient
+// Every message is a frame: length (2 bytes, counting the type and payload), type (1 byte), payload. Numbers are
+// big-endian. Squares are 0-224 (row * 15 + col) and letters are their ASCII codes ('*' for a blank, 0 for none).
+//
+// Client to server
+//   JOIN     game id (4 bytes, 0 = start a new game), players (1 byte, only used for a new game)
+//   PLACE    square (1), letter (1)          puts a tile from the rack on the board
+//   RESET    -                               takes this turn's tiles back
+//   SUBMIT   -                               checks the words and plays them (ERROR and a reset if they're invalid)
+//   PASS     -
+// Server to client
+//   WELCOME  game id (4), seat (1), players (1)
+//   STATE    flags (1), current player (1), round (2), bag (1), players (1), scores (2 each), rack (7),
+//            valid squares (4 x 8 bytes, bit = square, only set on the player's own turn),
+//            changed squares (1), then square (1), letter (1), blank (1) for each square that differs from the last STATE
+//   ERROR    message (rest of the frame, UTF-8)
+final class Protocol {
+    static final int MAX_FRAME = 1 << 12; // Largest length a frame can have
+    static final int HEADER = 3; // Length and type
+
+    static final byte JOIN = 1, PLACE = 2, RESET = 3, SUBMIT = 4, PASS = 5;
+    static final byte WELCOME = 20, STATE = 21, ERROR = 22;
+
+    static final int GAME_OVER = 1; // STATE flags
+    static final int STARTED = 2; // Every seat has been taken, so moves can be made
+
+    private Protocol() {}
+
+    // Starts a frame of the given type in buf; finish it with end once the payload has been put in
+    static int begin(ByteBuffer buf, byte type) {
+        int start = buf.position();
+        buf.putShort((short) 0); // Filled in by end
+        buf.put(type);
+        return start;
+    }
+
+    static void end(ByteBuffer buf, int start) {
+        buf.putShort(start, (short) (buf.position() - start - 2));
+    }
+
+    // A whole frame with no payload (or a short fixed one)
+    static ByteBuffer frame(byte type, byte... payload) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + payload.length);
+        int start = begin(buf, type);
+        buf.put(payload);
+        end(buf, start);
+        return buf.flip();
+    }
+
+    static ByteBuffer join(int gameId, int players) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + 5);
+        int start = begin(buf, JOIN);
+        buf.putInt(gameId).put((byte) players);
+        end(buf, start);
+        return buf.flip();
+    }
+
+    static ByteBuffer error(String message) {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        return frame(ERROR, text);
+    }
+
+    // Reads the text of an ERROR payload
+    static String errorText(ByteBuffer payload) {
+        byte[] text = new byte[payload.remaining()];
+        payload.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,29 @@
+package FPT; // The folder containing all the other files in the project
+
+// Worth of the tiles a move leaves on the rack, for the next turn
+// Keeping an S or a blank makes a big play next turn more likely, keeping a Q or two of the same letter does the opposite.
+final class RackLeave {
+    private static final double[] VALUES = { // Rough worth of keeping one of each tile (A-Z then the blank), in points
+        0.5, -2.0, -0.5, 0.0, 1.0, -2.0, -2.5, 1.0, -0.5, -2.5, -1.5, -0.5, 0.5,
+        0.0, -1.5, -0.5, -7.0, 1.0, 7.5, 0.0, -3.0, -5.5, -3.5, 3.5, -0.5, 2.0, 25.0
+    };
+    private static final double DUPLICATE_PENALTY = 2.0; // For every extra copy of the same tile kept
+
+    private RackLeave() {}
+
+    // Worth of what is still on the rack after the move is played
+    static double value(Move move, char[] rack) {
+        int[] counts = new int[VALUES.length];
+        for (char c : rack) {
+            if (c != GameEngine.EMPTY) counts[GameEngine.letterIndex(c)]++;
+        }
+        for (int i = 0; i < move.word.length(); i++) {
+            if (move.isNewTile(i)) counts[GameEngine.letterIndex(move.rackLetter(i))]--;
+        }
+        double value = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) value += counts[i] * VALUES[i] - (counts[i] - 1) * DUPLICATE_PENALTY;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.util.*;
+
+// A background picture scaled once to the size it is shown at, in the screen's own pixel format
+// Repaints just copy the part of it inside the clip, instead of rescaling the whole full size image every time.
+// The scaled copy is only rebuilt when the component changes size or moves to a screen with a different configuration.
+// Only the scaled copy is ever drawn, so the full size picture (board.png alone is about 11.6 MB decoded) is only held
+// softly: the garbage collector can drop it, and it is read again if a new size is ever needed.
+public class ScaledBackground {
+    private static final Map<String, SoftReference<BufferedImage>> originals = new HashMap<>(); // Shared by the whole program
+    private static final Set<String> missing = new HashSet<>(); // Pictures that couldn't be read (never tried again)
+
+    private final String path;
+    private BufferedImage scaled; // Ready to blit
+    private GraphicsConfiguration scaledFor; // Configuration the scaled copy was made for
+
+    public ScaledBackground(String path) {
+        this.path = path;
+    }
+
+    // Draws the part of the background inside g's clip, stretched to width x height
+    public void paint(Graphics g, Component c, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        GraphicsConfiguration config = c.getGraphicsConfiguration();
+        if (scaled == null || scaled.getWidth() != width || scaled.getHeight() != height || config != scaledFor) {
+            scaled = scale(original(path), config, width, height);
+            scaledFor = config;
+        }
+        if (scaled == null) return; // Picture is missing, so there's nothing to draw
+
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, width, height);
+        int x1 = Math.max(clip.x, 0), y1 = Math.max(clip.y, 0);
+        int x2 = Math.min(clip.x + clip.width, width), y2 = Math.min(clip.y + clip.height, height);
+        if (x2 > x1 && y2 > y1) g.drawImage(scaled, x1, y1, x2, y2, x1, y1, x2, y2, null); // Straight copy, no scaling
+    }
+
+    // Makes the scaled copy (once per size and screen configuration)
+    private static BufferedImage scale(BufferedImage source, GraphicsConfiguration config, int width, int height) {
+        if (source == null) return null;
+        BufferedImage image = config != null
+                ? config.createCompatibleImage(width, height, source.getTransparency())
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return image;
+    }
+
+    // Full size picture, read from disk the first time anyone asks for it (and again if it has been dropped since)
+    static synchronized BufferedImage original(String path) {
+        if (missing.contains(path)) return null;
+        SoftReference<BufferedImage> ref = originals.get(path);
+        BufferedImage image = ref != null ? ref.get() : null;
+        if (image == null) {
+            try {
+                image = ImageIO.read(new File(path));
+            } catch (IOException e) {
+                // Missing picture, the background just stays plain
+            }
+            if (image == null) missing.add(path);
+            else originals.put(path, new SoftReference<>(image));
+        }
+        return image;
+    }
+
+    // Checks if a picture turned out to be missing, without reading it again
+    static synchronized boolean isMissing(String path) {
+        return missing.contains(path);
+    }
+}
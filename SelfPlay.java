@@ -0,0 +1,247 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Plays whole games between computer players with no windows, for tuning bots and checking statistics
+// Game i uses seed + i for its bag, so any game in a batch can be played again on its own. Games run in parallel on a
+// fixed pool (one thread per core by default, each with its own ComputerPlayers), and each result is written to the
+// output file as soon as its game finishes. With --record, every game is also saved to one GameRecord archive.
+//
+// java FPT.SelfPlay --players 2 --games 1000 --seed 1 --strategies score,equity --out results.csv [--format jsonl]
+//                   [--threads N] [--record games.fptg] [--budget <milliseconds per simulated move>]
+public class SelfPlay {
+    // Ways a computer seat can pick its move
+    public enum Strategy {
+        SCORE(MoveEvaluator.SCORE), // Most points
+        EQUITY(MoveEvaluator.EQUITY), // Points plus the worth of the tiles kept
+        SIMULATION(MoveEvaluator.EQUITY); // Plays out the best moves by equity against random replies (MonteCarloEvaluator)
+
+        final MoveEvaluator evaluator;
+
+        Strategy(MoveEvaluator evaluator) {
+            this.evaluator = evaluator;
+        }
+    }
+
+    // What happened in one game
+    public static final class Result {
+        public final int game;
+        public final long seed;
+        public final Strategy[] strategies; // One per seat
+        public final int[] scores;
+        public final int[] bingos; // Moves that used all 7 tiles
+        public final int turns; // Moves and passes
+        public final boolean blocked; // Nobody could move but the bag wasn't empty
+        public final long nanos;
+        public final byte[] record; // The game in GameRecord format (null unless recording)
+
+        Result(int game, long seed, Strategy[] strategies, int[] scores, int[] bingos, int turns, boolean blocked, long nanos,
+               byte[] record) {
+            this.game = game;
+            this.seed = seed;
+            this.strategies = strategies;
+            this.scores = scores;
+            this.bingos = bingos;
+            this.turns = turns;
+            this.blocked = blocked;
+            this.nanos = nanos;
+            this.record = record;
+        }
+
+        // Seat with the highest score (1-based, 0 for a tie)
+        public int winner() {
+            int best = 0, winner = 0;
+            for (int i = 0; i < scores.length; i++) {
+                if (winner == 0 || scores[i] > best) {
+                    best = scores[i];
+                    winner = i + 1;
+                } else if (scores[i] == best) {
+                    winner = -1;
+                }
+            }
+            return Math.max(winner, 0);
+        }
+    }
+
+    private final Lexicon lexicon;
+    private final ThreadLocal<EnumMap<Strategy, ComputerPlayer>> players; // Every thread has its own move generators
+    private boolean recording = false;
+    private long simulationBudget = 100; // Milliseconds per move for SIMULATION seats
+
+    public SelfPlay(Lexicon lexicon) {
+        this.lexicon = lexicon;
+        this.players = ThreadLocal.withInitial(() -> new EnumMap<>(Strategy.class));
+    }
+
+    // Turns saving every game (Result.record) on or off
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    // Time a SIMULATION seat gets for each move
+    public void setSimulationBudget(long millis) {
+        this.simulationBudget = millis;
+    }
+
+    // Plays one game to the end (the bag running out), seat i using strategies[i]
+    public Result play(int game, long seed, Strategy[] strategies) {
+        long start = System.nanoTime();
+        int numPlayers = strategies.length;
+        GameEngine engine = new GameEngine(numPlayers, lexicon, seed);
+        ByteArrayOutputStream bytes = recording ? new ByteArrayOutputStream(256) : null;
+        GameRecord.Writer recorder = recording ? new GameRecord.Writer(bytes, false) : null;
+        if (recorder != null) {
+            recorder.start(engine);
+            engine.addTurnListener(recorder);
+        }
+        int[] bingos = new int[numPlayers];
+        int turns = 0, passesInARow = 0;
+        while (!engine.isGameOver() && passesInARow < numPlayers) { // A full round of passes would repeat forever
+            int player = engine.currentPlayer();
+            Move move = player(strategies[player - 1]).takeTurn(engine);
+            turns++;
+            if (move == null) {
+                passesInARow++;
+                continue;
+            }
+            passesInARow = 0;
+            if (move.tileCount() == GameEngine.RACK_SIZE) bingos[player - 1]++;
+        }
+        int[] scores = new int[numPlayers];
+        for (int i = 0; i < numPlayers; i++) scores[i] = engine.score(i + 1);
+        if (recorder != null) {
+            recorder.finish(engine);
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Can't happen, it's all in memory
+            }
+        }
+        return new Result(game, seed, strategies, scores, bingos, turns, !engine.isGameOver(), System.nanoTime() - start,
+                bytes != null ? bytes.toByteArray() : null);
+    }
+
+    // This thread's computer player for a strategy
+    // Games already run one per thread, so a simulating player does its rollouts on its own thread only
+    private ComputerPlayer player(Strategy strategy) {
+        return players.get().computeIfAbsent(strategy, s -> s == Strategy.SIMULATION
+                ? new ComputerPlayer(lexicon, new MonteCarloEvaluator(lexicon, ForkJoinPool.commonPool(), 1), simulationBudget)
+                : new ComputerPlayer(lexicon, s.evaluator));
+    }
+
+    // Plays games 0 to games - 1 on threads threads, handing each result to sink (on the calling thread) as it finishes
+    public void run(int games, long seed, Strategy[] strategies, int threads, ResultSink sink)
+            throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "self-play");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<Result> done = new ExecutorCompletionService<>(pool);
+            for (int game = 0; game < games; game++) {
+                int g = game;
+                done.submit(() -> play(g, seed + g, strategies));
+            }
+            for (int i = 0; i < games; i++) {
+                try {
+                    sink.accept(done.take().get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Game failed", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Where finished games go
+    public interface ResultSink {
+        void accept(Result result) throws IOException;
+    }
+
+    // One line per game in CSV (with a header) or JSON lines
+    static final class Writer implements ResultSink {
+        private final PrintWriter out;
+        private final boolean json;
+        private final int numPlayers;
+
+        Writer(PrintWriter out, boolean json, int numPlayers) {
+            this.out = out;
+            this.json = json;
+            this.numPlayers = numPlayers;
+            if (!json) {
+                StringBuilder header = new StringBuilder("game,seed,turns,winner,blocked,millis");
+                for (int i = 1; i <= numPlayers; i++) header.append(",strategy").append(i);
+                for (int i = 1; i <= numPlayers; i++) header.append(",score").append(i);
+                for (int i = 1; i <= numPlayers; i++) header.append(",bingos").append(i);
+                out.println(header);
+            }
+        }
+
+        @Override
+        public void accept(Result r) {
+            StringBuilder line = new StringBuilder();
+            if (json) {
+                line.append("{\"game\":").append(r.game).append(",\"seed\":").append(r.seed)
+                    .append(",\"turns\":").append(r.turns).append(",\"winner\":").append(r.winner())
+                    .append(",\"blocked\":").append(r.blocked).append(",\"millis\":").append(r.nanos / 1_000_000)
+                    .append(",\"strategies\":[");
+                for (int i = 0; i < numPlayers; i++) line.append(i > 0 ? "," : "").append('"').append(r.strategies[i].name().toLowerCase()).append('"');
+                line.append("],\"scores\":").append(Arrays.toString(r.scores).replace(" ", ""))
+                    .append(",\"bingos\":").append(Arrays.toString(r.bingos).replace(" ", "")).append('}');
+            } else {
+                line.append(r.game).append(',').append(r.seed).append(',').append(r.turns).append(',').append(r.winner())
+                    .append(',').append(r.blocked).append(',').append(r.nanos / 1_000_000);
+                for (Strategy s : r.strategies) line.append(',').append(s.name().toLowerCase());
+                for (int score : r.scores) line.append(',').append(score);
+                for (int bingo : r.bingos) line.append(',').append(bingo);
+            }
+            out.println(line);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected an option, got " + args[i]);
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        int numPlayers = Integer.parseInt(options.getOrDefault("players", "2"));
+        if (numPlayers < 2 || numPlayers > 4) throw new IllegalArgumentException("Players must be 2 to 4 (as in the menu)");
+        int games = Integer.parseInt(options.getOrDefault("games", "100"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        String outPath = options.getOrDefault("out", "selfplay.csv");
+        boolean json = options.getOrDefault("format", outPath.endsWith(".jsonl") ? "jsonl" : "csv").equals("jsonl");
+
+        String[] names = options.getOrDefault("strategies", "score").split(",");
+        Strategy[] strategies = new Strategy[numPlayers];
+        for (int i = 0; i < numPlayers; i++) strategies[i] = Strategy.valueOf(names[i % names.length].trim().toUpperCase());
+
+        String recordPath = options.get("record");
+
+        SelfPlay selfPlay = new SelfPlay(SharedDictionary.get());
+        selfPlay.setRecording(recordPath != null);
+        selfPlay.setSimulationBudget(Long.parseLong(options.getOrDefault("budget", "100")));
+        long start = System.nanoTime();
+        int[] wins = new int[numPlayers + 1];
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(outPath)));
+             OutputStream archive = recordPath != null ? new BufferedOutputStream(new FileOutputStream(recordPath)) : null) {
+            Writer writer = new Writer(out, json, numPlayers);
+            selfPlay.run(games, seed, strategies, threads, r -> {
+                writer.accept(r);
+                if (archive != null) archive.write(r.record);
+                wins[r.winner()]++;
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.2f s (%.1f games/s, %.0f games/min) on %d threads -> %s%n",
+                games, seconds, games / seconds, games * 60 / seconds, threads, outPath);
+        for (int i = 1; i <= numPlayers; i++) System.out.println("Seat " + i + " (" + strategies[i - 1].name().toLowerCase() + "): " + wins[i] + " wins");
+        System.out.println("Ties: " + wins[0]);
+    }
+}
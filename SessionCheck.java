@@ -0,0 +1,91 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Loads a SessionManager with many games, evicts them all and brings them all back, reporting the memory they take
+// Run from the folder above the project (like the game): java FPT.SessionCheck [sessions] [turns]
+// Every session is a 2-player game where the computer plays a few turns. memoryUsed() (the sessions' own estimate) is
+// printed next to what the heap actually grew by, with every game in memory and then with every game evicted. Then
+// each game is brought back from its record and has to be the same as before it was evicted. Exits with 1 if one isn't.
+public class SessionCheck {
+    // What a game has to come back as: board, racks, scores and whose turn it is
+    static String state(GameEngine engine) {
+        StringBuilder b = new StringBuilder();
+        b.append(engine.boardHash()).append('|').append(engine.currentPlayer()).append('|').append(engine.round()).append('|')
+                .append(engine.bagSize()).append('|').append(engine.turnsPlayed());
+        for (int p = 1; p <= engine.numPlayers(); p++) b.append('|').append(engine.score(p)).append(',').append(engine.rackHash(p));
+        return b.toString();
+    }
+
+    // Heap in use after a collection (only a rough guide, but enough to see if the estimate is far off)
+    private static long heapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String when, SessionManager sessions, long heap, int count) {
+        long used = sessions.memoryUsed();
+        System.out.printf("%-22s %,8d active  memoryUsed %,7d KB (%,5d bytes a session)  heap grew %,7d KB (%,5d bytes a session)%n",
+                when, sessions.activeCount(), used / 1024, used / count, heap / 1024, heap / count);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        Lexicon lexicon = SharedDictionary.get();
+        ComputerPlayer player = new ComputerPlayer(lexicon);
+        Path folder = Files.createTempDirectory("session-check");
+        int failures = 0;
+        long baseline = heapUsed();
+        try (SessionManager sessions = new SessionManager(lexicon, folder, 0, TimeUnit.SECONDS, 0)) {
+            long start = System.nanoTime();
+            int[] ids = new int[count];
+            List<CompletableFuture<String>> played = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ids[i] = sessions.create(2);
+                for (int t = 0; t < turns; t++) sessions.submit(ids[i], player::takeTurn);
+                played.add(sessions.submit(ids[i], SessionCheck::state));
+            }
+            String[] before = new String[count];
+            for (int i = 0; i < count; i++) before[i] = played.get(i).join();
+            System.out.printf("%,d sessions of %d turns played in %.1f s%n", count, turns, (System.nanoTime() - start) / 1e9);
+            report("every game in memory", sessions, heapUsed() - baseline, count);
+
+            start = System.nanoTime();
+            sessions.evictAll();
+            while (sessions.activeCount() > 0) Thread.sleep(10);
+            System.out.printf("%,d evicted in %.1f s%n", sessions.evictions(), (System.nanoTime() - start) / 1e9);
+            report("every game evicted", sessions, heapUsed() - baseline, count);
+
+            start = System.nanoTime();
+            List<CompletableFuture<String>> restored = new ArrayList<>();
+            for (int id : ids) restored.add(sessions.submit(id, SessionCheck::state));
+            for (int i = 0; i < count; i++) {
+                String after;
+                try {
+                    after = restored.get(i).join();
+                } catch (CompletionException e) {
+                    after = "couldn't be brought back: " + e.getCause();
+                }
+                if (!after.equals(before[i])) {
+                    failures++;
+                    if (failures <= 10) System.out.println("FAILED: game " + ids[i] + " came back as " + after + ", not " + before[i]);
+                }
+            }
+            System.out.printf("%,d restored in %.1f s%n", sessions.restores(), (System.nanoTime() - start) / 1e9);
+            report("every game restored", sessions, heapUsed() - baseline, count);
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+                for (Path file : files) Files.delete(file);
+            }
+            Files.delete(folder);
+        }
+        System.out.printf("%,d sessions, %d came back different%n", count, failures);
+        if (failures > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,234 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+// Hosts many headless games in one program (behind a web front end, for a tournament...), each one keyed by a game id
+// Every session has a mailbox: actions posted to it run one at a time, in order, on a shared thread pool, so a game
+// never needs a lock and thousands of sessions only need as many threads as there are cores.
+// Every session records its turns (GameRecord), which is also how it is evicted: once it has been idle for a while,
+// its record is written to disk and the engine is dropped. The next action replays the record (from the seed, so the
+// same tiles come out) and carries on. Nothing but the engine and its record belongs to a session: the Lexicon is the
+// one passed in (shared by every game) and sessions never load tile images.
+public class SessionManager implements Closeable {
+    private static final int BATCH = 32; // Actions a session runs before letting other sessions have the thread
+    private static final long EVICTED_BYTES = 160; // What an evicted session still takes (see Session)
+
+    private final Lexicon lexicon;
+    private final Path evictionFolder;
+    private final long idleNanos;
+    private final ExecutorService pool;
+    private final ScheduledExecutorService sweeper;
+    private final ConcurrentHashMap<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicLong evictions = new AtomicLong(), restores = new AtomicLong();
+
+    // One game: its engine (null while evicted), its record so far and its mailbox
+    private final class Session implements Runnable {
+        final int id;
+        final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean(); // Queued on (or running on) the pool
+        GameEngine engine; // Only touched by the session's own actions
+        ByteArrayOutputStream record; // Every turn so far, in GameRecord format
+        GameRecord.Writer recorder;
+        volatile long lastUsed = System.nanoTime();
+        volatile long bytes; // Estimated heap used, updated after every action
+
+        Session(int id) {
+            this.id = id;
+        }
+
+        // Adds an action to the mailbox, and queues the session on the pool if it isn't already
+        void post(Runnable action) {
+            mailbox.add(action);
+            if (scheduled.compareAndSet(false, true)) pool.execute(this);
+        }
+
+        @Override
+        public void run() {
+            Runnable action;
+            for (int n = 0; n < BATCH && (action = mailbox.poll()) != null; n++) action.run();
+            scheduled.set(false);
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) pool.execute(this); // More came in meanwhile
+        }
+
+        boolean isEvicted() {
+            return engine == null;
+        }
+
+        void measure() {
+            bytes = engine == null ? EVICTED_BYTES : EVICTED_BYTES + engine.estimatedBytes() + record.size() + 64;
+        }
+    }
+
+    // idleTimeout of zero turns eviction off; threads of zero uses one per core
+    public SessionManager(Lexicon lexicon, Path evictionFolder, long idleTimeout, TimeUnit unit, int threads) throws IOException {
+        this.lexicon = lexicon;
+        this.evictionFolder = Files.createDirectories(evictionFolder);
+        this.idleNanos = unit.toNanos(idleTimeout);
+        this.pool = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), daemon("session"));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(daemon("session-sweeper"));
+        if (idleNanos > 0) {
+            long period = Math.max(idleNanos / 2, TimeUnit.MILLISECONDS.toNanos(100));
+            sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Starts a new game, returns its id
+    public int create(int players) {
+        if (players < 2 || players > 4) throw new IllegalArgumentException("Games have 2 to 4 players");
+        Session session = new Session(nextId.getAndIncrement());
+        session.engine = new GameEngine(players, lexicon, ThreadLocalRandom.current().nextLong());
+        startRecording(session, new ByteArrayOutputStream(256), true);
+        session.measure();
+        sessions.put(session.id, session);
+        return session.id;
+    }
+
+    // Runs action on a game's engine inside its mailbox (after everything posted before it), and returns its result
+    public <T> CompletableFuture<T> submit(int gameId, Function<GameEngine, T> action) {
+        Session session = sessions.get(gameId);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (session == null) {
+            result.completeExceptionally(new NoSuchElementException("No game " + gameId));
+            return result;
+        }
+        session.post(() -> {
+            try {
+                if (session.isEvicted()) restore(session);
+                session.lastUsed = System.nanoTime();
+                result.complete(action.apply(session.engine));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                if (!session.isEvicted()) session.measure();
+            }
+        });
+        return result;
+    }
+
+    // Ends a game: its session and any file it was evicted to are thrown away
+    public void remove(int gameId) {
+        Session session = sessions.remove(gameId);
+        if (session != null) session.post(() -> {
+            session.engine = null;
+            session.record = null;
+            try {
+                Files.deleteIfExists(file(session.id));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Queues an eviction for every session that hasn't been used for the idle timeout (the sweeper calls this)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            if (!session.isEvicted() && now - session.lastUsed >= idleNanos) session.post(() -> evict(session, idleNanos));
+        }
+    }
+
+    // Evicts every session right away (e.g. before shutting down)
+    public void evictAll() {
+        for (Session session : sessions.values()) session.post(() -> evict(session, 0));
+    }
+
+    // Writes a session's record to disk and drops its engine (runs inside its mailbox)
+    private void evict(Session session, long minIdle) {
+        if (session.isEvicted() || System.nanoTime() - session.lastUsed < minIdle || !sessions.containsKey(session.id)) return;
+        GameEngine engine = session.engine;
+        if (engine.placedCount() > 0) engine.resetPlacedTiles(); // Half-built turns aren't part of the record
+        try {
+            Files.write(file(session.id), session.record.toByteArray());
+        } catch (IOException e) {
+            e.printStackTrace(); // Stays in memory instead
+            return;
+        }
+        engine.removeTurnListener(session.recorder);
+        session.engine = null;
+        session.record = null;
+        session.recorder = null;
+        session.measure();
+        evictions.incrementAndGet();
+    }
+
+    // Replays a session's record from disk to get its engine back (runs inside its mailbox)
+    private void restore(Session session) throws IOException {
+        Path file = file(session.id);
+        byte[] bytes = Files.readAllBytes(file);
+        GameEngine engine;
+        try (GameRecord.Reader reader = new GameRecord.Reader(new ByteArrayInputStream(bytes))) {
+            if (!reader.nextGame()) throw new IOException("Empty record for game " + session.id);
+            engine = reader.replay(lexicon);
+        }
+        session.engine = engine;
+        ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 256);
+        record.write(bytes); // Carries on from where it left off
+        startRecording(session, record, false);
+        Files.deleteIfExists(file);
+        restores.incrementAndGet();
+    }
+
+    private void startRecording(Session session, ByteArrayOutputStream record, boolean writeHeader) {
+        session.record = record;
+        session.recorder = new GameRecord.Writer(record, false);
+        if (writeHeader) session.recorder.start(session.engine);
+        session.engine.addTurnListener(session.recorder);
+    }
+
+    private Path file(int id) {
+        return evictionFolder.resolve("session-" + id + ".fptg");
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    // Sessions whose engine is in memory
+    public int activeCount() {
+        int active = 0;
+        for (Session session : sessions.values()) if (!session.isEvicted()) active++;
+        return active;
+    }
+
+    public long evictions() { return evictions.get(); }
+    public long restores() { return restores.get(); }
+
+    // Estimated heap used by one session (0 if there's no such game)
+    public long memoryUsed(int gameId) {
+        Session session = sessions.get(gameId);
+        return session == null ? 0 : session.bytes;
+    }
+
+    // Estimated heap used by every session together (the shared Lexicon isn't counted)
+    public long memoryUsed() {
+        long total = 0;
+        for (Session session : sessions.values()) total += session.bytes;
+        return total;
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
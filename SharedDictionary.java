@@ -0,0 +1,65 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.util.concurrent.*;
+
+// One dictionary for the whole program, loaded once on a background thread and shared by every game (restarts included)
+// The Lexicon is immutable, so any number of games and threads can read it at the same time
+public final class SharedDictionary {
+    private static final String TEXT_PATH = "FPT/words.txt"; // Word list everything is built from
+    private static final String SNAPSHOT_PATH = "FPT/words.dawg"; // Compiled copy of it (see Lexicon.open)
+
+    private static CompletableFuture<Lexicon> loading; // Only ever set once
+
+    private SharedDictionary() {}
+
+    // Starts loading in the background (does nothing if it has already been started)
+    public static synchronized CompletableFuture<Lexicon> preload() {
+        if (loading == null) {
+            loading = new CompletableFuture<>();
+            Thread loader = new Thread(() -> {
+                try {
+                    loading.complete(load());
+                } catch (Throwable t) {
+                    loading.completeExceptionally(t); // Never leaves anyone waiting forever
+                }
+            }, "dictionary-loader");
+            loader.setDaemon(true); // Never stops the program from closing
+            loader.start();
+        }
+        return loading;
+    }
+
+    // Checks if the dictionary has finished loading (or failed to, see failure)
+    public static boolean isReady() {
+        return preload().isDone();
+    }
+
+    // Why loading failed (null if it hasn't failed, or hasn't finished yet)
+    public static Throwable failure() {
+        CompletableFuture<Lexicon> future = preload();
+        if (!future.isCompletedExceptionally()) return null;
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    // Gets the dictionary, waiting for the background load if it hasn't finished yet
+    // Throws CompletionException if it couldn't be loaded
+    public static Lexicon get() {
+        return preload().join();
+    }
+
+    // Reads the dictionary; a missing, unreadable or empty word list is an error, since no word could ever be played
+    private static Lexicon load() throws IOException {
+        long start = Metrics.DICTIONARY_LOAD.start();
+        Lexicon lexicon = Lexicon.open(TEXT_PATH, SNAPSHOT_PATH);
+        if (lexicon.wordCount() == 0) throw new IOException("No words in " + TEXT_PATH);
+        Metrics.DICTIONARY_LOAD.stop(start, lexicon.wordCount());
+        return lexicon;
+    }
+}
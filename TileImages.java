@@ -0,0 +1,74 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.*;
+
+// Cache of the letter tile images, shared by every game
+// The 27 PNGs (A-Z and * for the blank) are read from disk once. For every size asked for, they are scaled once into a
+// single sprite atlas (one strip with every tile side by side) that matches the screen's pixel format, and each icon
+// is a view into that strip. After that, placing a tile or switching racks never touches the disk.
+public final class TileImages {
+    private static final char[] TILES = GameEngine.LETTERS; // A-Z then the blank
+
+    private static BufferedImage[] originals; // Decoded PNGs (null entries if a file is missing)
+    private static final Map<Integer, ImageIcon[]> bySize = new HashMap<>(); // Scaled icons, in TILES order
+
+    private TileImages() {}
+
+    // Icon of a tile scaled to size x size pixels (null if the image couldn't be loaded)
+    public static synchronized ImageIcon icon(char letter, int size) {
+        ImageIcon[] icons = bySize.get(size);
+        if (icons == null) {
+            long start = Metrics.TILE_IMAGE_LOAD.start();
+            icons = buildAtlas(size);
+            Metrics.TILE_IMAGE_LOAD.stop(start, size);
+            bySize.put(size, icons);
+        }
+        return icons[GameEngine.letterIndex(letter)];
+    }
+
+    // Scales every tile into one strip and cuts an icon out of it for each letter
+    private static ImageIcon[] buildAtlas(int size) {
+        if (originals == null) originals = loadOriginals();
+        BufferedImage atlas = createCompatibleImage(size * TILES.length, size);
+        Graphics2D g = atlas.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        for (int i = 0; i < TILES.length; i++) {
+            if (originals[i] != null) g.drawImage(originals[i], i * size, 0, size, size, null);
+        }
+        g.dispose();
+
+        ImageIcon[] icons = new ImageIcon[TILES.length];
+        for (int i = 0; i < TILES.length; i++) {
+            if (originals[i] != null) icons[i] = new ImageIcon(atlas.getSubimage(i * size, 0, size, size));
+        }
+        return icons;
+    }
+
+    // Reads every tile PNG from disk (only ever happens once)
+    private static BufferedImage[] loadOriginals() {
+        BufferedImage[] images = new BufferedImage[TILES.length];
+        for (int i = 0; i < TILES.length; i++) {
+            try {
+                images[i] = ImageIO.read(new File(TILES[i] + ".png"));
+            } catch (IOException e) {
+                e.printStackTrace(); // That tile just shows up without a picture
+            }
+        }
+        return images;
+    }
+
+    // Image in the same pixel format as the screen, so drawing it is a straight copy
+    static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
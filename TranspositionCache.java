@@ -0,0 +1,101 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+// Bounded cache of anything worked out for a position (move lists, evaluations), keyed by its Zobrist hash
+// The keys are split between a fixed number of stripes, each with its own lock, so threads looking up different
+// positions hardly ever wait for each other. Every stripe holds up to capacity / stripes entries and throws out the
+// one used least recently when it is full. Hits and misses are counted so the hit rate can be reported (in LongAdders,
+// which give every thread its own cell, since one shared counter bumped on every lookup is where threads would meet).
+public final class TranspositionCache<V> {
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final Stripe<V>[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // One lock's worth of entries, in least to most recently used order
+    private static final class Stripe<V> extends LinkedHashMap<Long, V> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true); // Access order, so the eldest entry is the least recently used one
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    public TranspositionCache(int capacity) {
+        this(capacity, DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TranspositionCache(int capacity, int stripes) {
+        if (capacity < 1 || stripes < 1) throw new IllegalArgumentException("Capacity and stripes must be positive");
+        stripes = Integer.highestOneBit(Math.min(stripes, capacity)); // Power of two, so a mask picks the stripe
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new Stripe<>(Math.max(capacity / stripes, 1));
+    }
+
+    // Stripe a key belongs to (top bits, since the low bits are just as random but are also what the map hashes on)
+    private Stripe<V> stripe(long key) {
+        return stripes[(int) (key >>> 40) & (stripes.length - 1)];
+    }
+
+    // Cached value for a position (null if it isn't cached)
+    public V get(long key) {
+        Stripe<V> stripe = stripe(key);
+        V value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        (value != null ? hits : misses).increment();
+        (value != null ? Metrics.CACHE_HITS : Metrics.CACHE_MISSES).increment(); // Every cache together, for the metrics dump
+        return value;
+    }
+
+    public void put(long key, V value) {
+        Stripe<V> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+
+    // Fraction of lookups that found something (0 before any lookups)
+    public double hitRate() {
+        long h = hits.sum(), total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d entries, %d hits, %d misses (%.1f%% hit rate)", size(), hits(), misses(), 100 * hitRate());
+    }
+}
@@ -0,0 +1,16 @@
+package FPT; // The folder containing all the other files in the project
+
+// Told about every turn a GameEngine finishes (see GameEngine.addTurnListener), e.g. to record the game
+// Called on whatever thread is playing the game, after the turn has been applied but before the next player is up.
+// Undo and redo are passed on too: undo calls undone, and a redo calls moved, passed or exchanged again exactly as the
+// first time, so a listener that follows the calls in order always ends up with the turns that are on the board.
+public interface TurnListener {
+    void moved(int player, Move move, int score);
+
+    void passed(int player);
+
+    void exchanged(int player, String tiles);
+
+    // The last turn still on the board (played by player) was taken back
+    void undone(int player);
+}
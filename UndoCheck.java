@@ -0,0 +1,144 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Checks that undo, redo and rewindTo put a game back exactly as it was, and that game records keep up with them
+// Run from the folder above the project (like the game): java FPT.UndoCheck [games]
+// Every game is played by the computer with random passes and exchanges, saving what the engine looks like after each
+// turn (board, cross-checks, racks, scores, the bag's next draws...). Then it jumps to random turns and compares, plays
+// a different turn from the middle, and replays the game's record to check it ends up in the same place. Last, a game
+// that was undone and played on is evicted from a SessionManager and brought back. Exits with 1 if anything differs.
+public class UndoCheck {
+    private static final int MAX_TURNS = 60; // Turns played per game before rewinding
+    private static final int REWINDS = 40; // Random jumps per game
+
+    private final Lexicon lexicon;
+    private final ComputerPlayer player;
+    private int checks = 0, failures = 0;
+
+    UndoCheck(Lexicon lexicon) {
+        this.lexicon = lexicon;
+        this.player = new ComputerPlayer(lexicon);
+    }
+
+    // Everything about the game that undo has to put back, as one string to compare
+    static String state(GameEngine engine) {
+        StringBuilder b = new StringBuilder();
+        b.append(engine.boardHash()).append('|').append(engine.currentPlayer()).append('|').append(engine.round()).append('|')
+                .append(engine.isFirstMove()).append('|').append(engine.bagSize()).append('|');
+        for (int p = 1; p <= engine.numPlayers(); p++) {
+            b.append(engine.score(p)).append(',').append(engine.rackHash(p)).append(',');
+            for (int i = 0; i < GameEngine.RACK_SIZE; i++) b.append((int) engine.rackSlot(p, i)).append('.');
+        }
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            b.append(engine.crossCheck(square, true)).append(engine.crossCheck(square, false))
+                    .append(engine.crossScore(square, true)).append(engine.crossScore(square, false));
+            if (engine.isValidSpot(square / GameEngine.BOARD_SIZE, square % GameEngine.BOARD_SIZE)) b.append('v');
+            b.append((int) engine.letterAt(square)).append(engine.isBlank(square) ? 'b' : '-');
+        }
+        LetterBag bag = engine.bagCopy(); // The next draws have to be the same too
+        for (int i = 0; i < GameEngine.RACK_SIZE && bag.size() > 0; i++) b.append(bag.draw());
+        return b.toString();
+    }
+
+    private void check(boolean ok, String what) {
+        checks++;
+        if (!ok) {
+            failures++;
+            if (failures <= 10) System.out.println("FAILED: " + what);
+        }
+    }
+
+    // Plays one random turn (a move, or now and then a pass or an exchange)
+    private void playTurn(GameEngine engine, Random random) {
+        int kind = random.nextInt(10);
+        int p = engine.currentPlayer();
+        if (kind == 0) {
+            engine.pass();
+        } else if (kind == 1 && engine.bagSize() >= GameEngine.RACK_SIZE) {
+            if (!engine.exchange("" + engine.rackSlot(p, 0) + engine.rackSlot(p, 2))) engine.pass();
+        } else {
+            player.takeTurn(engine); // Passes by itself if there's no move
+        }
+    }
+
+    // One game: random rewinds against the saved states, a new branch from the middle, then the record
+    void checkGame(int game) throws IOException {
+        GameEngine engine = new GameEngine(2 + game % 3, lexicon, game);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameRecord.Writer recorder = new GameRecord.Writer(bytes, false);
+        recorder.start(engine);
+        engine.addTurnListener(recorder);
+        Random random = new Random(game);
+
+        List<String> states = new ArrayList<>();
+        states.add(state(engine));
+        while (!engine.isGameOver() && engine.turnsPlayed() < MAX_TURNS) {
+            playTurn(engine, random);
+            states.add(state(engine));
+        }
+        check(engine.turnsPlayed() == states.size() - 1, "game " + game + " counts " + engine.turnsPlayed() + " turns, not " + (states.size() - 1));
+
+        for (int i = 0; i < REWINDS; i++) {
+            int turn = random.nextInt(states.size());
+            engine.rewindTo(turn);
+            check(state(engine).equals(states.get(turn)), "game " + game + " rewound to turn " + turn);
+        }
+        int last = states.size() - 1, middle = states.size() / 2;
+        engine.rewindTo(last);
+        check(state(engine).equals(states.get(last)), "game " + game + " redone to the end");
+
+        engine.rewindTo(middle);
+        playTurn(engine, random); // A different turn from here on
+        check(engine.turnsRecorded() == middle + 1, "game " + game + " kept the undone turns after a new one was played");
+        String branched = state(engine);
+        engine.undo();
+        check(state(engine).equals(states.get(middle)), "game " + game + " undid the new turn");
+        engine.redo();
+
+        // The record went through every undo and redo above, so replaying it has to end up here too
+        recorder.close();
+        check(recorder.error() == null, "game " + game + " record failed: " + recorder.error());
+        try (GameRecord.Reader reader = new GameRecord.Reader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            check(reader.nextGame(), "game " + game + " record has no game");
+            check(state(reader.replay(lexicon)).equals(branched), "game " + game + " record replays to a different game");
+        } catch (IOException e) {
+            check(false, "game " + game + " record doesn't replay: " + e.getMessage());
+        }
+    }
+
+    // The same thing through a session: undo and play on, then evict, bring it back and play on again
+    void checkSession(Path folder) throws Exception {
+        try (SessionManager sessions = new SessionManager(lexicon, folder, 1, TimeUnit.HOURS, 1)) {
+            int id = sessions.create(2);
+            for (int i = 0; i < 4; i++) sessions.submit(id, player::takeTurn).join();
+            sessions.submit(id, GameEngine::undo).join();
+            sessions.submit(id, player::takeTurn).join();
+            String before = sessions.submit(id, UndoCheck::state).join();
+            sessions.evictAll();
+            try {
+                check(sessions.submit(id, UndoCheck::state).join().equals(before), "session came back as a different game");
+                sessions.submit(id, player::takeTurn).join();
+                check(sessions.submit(id, GameEngine::turnsPlayed).join() == 5, "session lost track of its turns");
+                check(sessions.restores() == 1, "session was never evicted and brought back");
+            } catch (CompletionException e) {
+                check(false, "session couldn't be brought back: " + e.getCause());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        UndoCheck check = new UndoCheck(SharedDictionary.get());
+        long start = System.nanoTime();
+        for (int game = 0; game < games; game++) check.checkGame(game);
+        Path folder = Files.createTempDirectory("undo-check");
+        check.checkSession(folder);
+        System.out.printf("%d games, %d checks, %d failed (%.1f s)%n", games, check.checks, check.failures, (System.nanoTime() - start) / 1e9);
+        if (check.failures > 0) System.exit(1);
+    }
+}
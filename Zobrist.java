@@ -0,0 +1,54 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+
+// 64-bit position hashes, cheap to keep up to date one tile at a time
+// Board: every (square, tile) pair has a random key and the board hash is the XOR of the keys of every tile on it, so
+// putting a tile down or taking it off is one XOR. A tile is one of the 26 letters, a blank standing for one of the 26
+// letters, or a blank that hasn't been given a letter yet (53 kinds in all).
+// Rack: the keys of the letters on it are added together instead (XOR would make two of the same letter cancel out),
+// so the order of the tiles doesn't matter but how many of each there are does.
+// The keys come from a fixed seed, so the same position always gets the same hash, in every run.
+public final class Zobrist {
+    private static final int KINDS = 53; // 26 letters, 26 assigned blanks, 1 unassigned blank
+    private static final long[] SQUARE_KEYS = new long[GameEngine.SQUARES * KINDS];
+    private static final long[] RACK_KEYS = new long[27]; // A-Z then the blank
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5C4AB813L);
+        for (int i = 0; i < SQUARE_KEYS.length; i++) SQUARE_KEYS[i] = random.nextLong();
+        for (int i = 0; i < RACK_KEYS.length; i++) RACK_KEYS[i] = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    // Key of a tile on a square (letter is what the board shows: A-Z, or BLANK for an unassigned blank)
+    public static long square(int square, char letter, boolean blank) {
+        int kind = letter == GameEngine.BLANK ? 52 : letter - 'A' + (blank ? 26 : 0);
+        return SQUARE_KEYS[square * KINDS + kind];
+    }
+
+    // Amount a rack hash changes by when this tile is added (subtract it when the tile is taken away)
+    public static long rackTile(char letter) {
+        return RACK_KEYS[GameEngine.letterIndex(letter)];
+    }
+
+    // Hash of a whole board, worked out from scratch
+    public static long board(char[] board, boolean[] blanks) {
+        long hash = 0;
+        for (int square = 0; square < board.length; square++) {
+            if (board[square] != GameEngine.EMPTY) hash ^= square(square, board[square], blanks[square]);
+        }
+        return hash;
+    }
+
+    // Hash of a rack (EMPTY slots are skipped), worked out from scratch
+    public static long rack(char[] rack) {
+        long hash = 0;
+        for (char c : rack) {
+            if (c != GameEngine.EMPTY) hash += rackTile(c);
+        }
+        return hash;
+    }
+}
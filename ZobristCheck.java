@@ -0,0 +1,83 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import java.util.*;
+
+// Checks the engine's incremental Zobrist hashes, and reports how often the Monte Carlo reply cache is hit
+// Run from the folder above the project (like the game): java FPT.ZobristCheck [games]
+// Every game is 3 players with a fixed seed. After every tile placed, every validate, reset and move, the board and rack
+// hashes the engine keeps are compared with ones worked out from scratch. When a game is over (the bag is empty, so
+// few tiles are unseen and reply racks repeat) a simulation is run and the reply cache's hit rate is printed.
+// Exits with 1 if any hash differs.
+public class ZobristCheck {
+    private static final int ROLLOUTS = 50; // Per candidate for the hit rate
+    private static final int CANDIDATES = 5;
+
+    private int checks = 0, failures = 0;
+
+    // Compares the engine's hashes with ones worked out from the board and racks as they are now
+    private void check(GameEngine engine, String what) {
+        char[] board = new char[GameEngine.SQUARES];
+        boolean[] blanks = new boolean[GameEngine.SQUARES];
+        for (int square = 0; square < GameEngine.SQUARES; square++) {
+            board[square] = engine.letterAt(square);
+            blanks[square] = engine.isBlank(square);
+        }
+        boolean ok = Zobrist.board(board, blanks) == engine.boardHash();
+        for (int p = 1; p <= engine.numPlayers(); p++) {
+            char[] rack = new char[GameEngine.RACK_SIZE];
+            for (int i = 0; i < rack.length; i++) rack[i] = engine.rackSlot(p, i);
+            ok &= Zobrist.rack(rack) == engine.rackHash(p);
+        }
+        checks++;
+        if (!ok) {
+            failures++;
+            if (failures <= 10) System.out.println("FAILED: hash differs " + what);
+        }
+    }
+
+    // Plays one game, checking after every step; returns the reply cache hit rate of a simulation at the end
+    double checkGame(Lexicon lexicon, long seed) {
+        GameEngine engine = new GameEngine(3, lexicon, seed);
+        MoveGenerator generator = new MoveGenerator(lexicon);
+        check(engine, "at the start of game " + seed);
+        while (!engine.isGameOver()) {
+            List<Move> moves = generator.generate(engine);
+            if (moves.isEmpty()) {
+                engine.pass();
+                check(engine, "after a pass in game " + seed);
+                continue;
+            }
+            Move tried = moves.get(moves.size() / 3); // Put down and taken back, to exercise placing and resetting
+            for (int i = 0; i < tried.word.length(); i++) {
+                if (!tried.isNewTile(i)) continue;
+                engine.placeTile(tried.rackLetter(i), tried.square(i));
+                check(engine, "after placing " + tried + " in game " + seed);
+            }
+            engine.validateWords(); // Gives any blanks their letters
+            check(engine, "after validating " + tried + " in game " + seed);
+            engine.resetPlacedTiles();
+            check(engine, "after taking back " + tried + " in game " + seed);
+
+            Move best = moves.get(0);
+            for (Move move : moves) if (move.score > best.score) best = move;
+            engine.playMove(best);
+            check(engine, "after playing " + best + " in game " + seed);
+        }
+        MonteCarloEvaluator simulator = new MonteCarloEvaluator(lexicon);
+        simulator.evaluate(engine, CANDIDATES, ROLLOUTS, 10_000, seed);
+        return simulator.replyCache().hitRate();
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Lexicon lexicon = SharedDictionary.get();
+        ZobristCheck check = new ZobristCheck();
+        for (int seed = 0; seed < games; seed++) {
+            double hitRate = check.checkGame(lexicon, seed);
+            System.out.printf("game %d: reply cache hit rate at the end %.1f%%%n", seed, 100 * hitRate);
+        }
+        System.out.printf("%d games, %d hash checks, %d failed%n", games, check.checks, check.failures);
+        if (check.failures > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,30 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+// What a simulation pays to reset the bag and deal a rack: restore from a saved bag, then draw 7 tiles
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BagBenchmarks {
+    LetterBag saved, bag;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        saved = new LetterBag(1);
+        bag = saved.copy();
+    }
+
+    @Benchmark
+    public long restoreAndDrawRack() {
+        bag.restore(saved);
+        long tiles = 0;
+        for (int i = 0; i < GameEngine.RACK_SIZE; i++) tiles += bag.draw();
+        return tiles;
+    }
+}
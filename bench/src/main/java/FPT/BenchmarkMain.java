@@ -0,0 +1,15 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+// Runs the JMH benchmarks with the GC profiler always on (allocation rate and bytes per operation next to every score)
+// Takes the usual JMH options, e.g. java -jar FPT/bench/target/benchmarks.jar validateWords -p stage=late -f 1
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
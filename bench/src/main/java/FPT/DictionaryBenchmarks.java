@@ -0,0 +1,35 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import org.openjdk.jmh.annotations.*;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+// Loading the dictionary, from the snapshot and from the word list (one load per call, so a single shot per iteration)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DictionaryBenchmarks {
+    Path text, snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        text = Paths.get("FPT/words.txt");
+        snapshot = Paths.get("FPT/words.dawg");
+        if (!Files.exists(text)) throw new IllegalStateException("No " + text.toAbsolutePath() + " (run from the folder above the project)");
+        if (!Files.exists(snapshot)) Lexicon.load(text.toString()).save(snapshot); // So loadSnapshot has something to read
+    }
+
+    @Benchmark
+    public Lexicon loadSnapshot() throws Exception {
+        return Lexicon.loadSnapshot(snapshot);
+    }
+
+    @Benchmark
+    public Lexicon buildFromText() throws Exception {
+        return Lexicon.load(text.toString());
+    }
+}
@@ -0,0 +1,117 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import org.openjdk.jmh.annotations.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// JMH version of the engine and painting benchmarks in Benchmarks, on the same fixtures
+// Each fixture is built once per fork in @Setup (playing the seeded games isn't part of any measurement), and every
+// benchmark leaves the engine as it found it, so the iterations all see the same board.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EngineBenchmarks {
+
+    // A fixture with nothing placed yet
+    @State(Scope.Thread)
+    public static class Position {
+        @Param({"early", "mid", "late"})
+        public String stage;
+
+        @Param({"false", "true"})
+        public boolean blank; // The move uses a blank
+
+        Benchmarks.Fixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = Benchmarks.stage(SharedDictionary.get(), stage, blank);
+        }
+    }
+
+    // A fixture with its move placed and validated, for the calls made after validating (scoring doesn't care about blanks)
+    @State(Scope.Thread)
+    public static class Placed {
+        @Param({"early", "mid", "late"})
+        public String stage;
+
+        Benchmarks.Fixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = Benchmarks.stage(SharedDictionary.get(), stage, false);
+            Benchmarks.place(fixture);
+            fixture.engine.validateWords();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.engine.resetPlacedTiles();
+        }
+    }
+
+    // A board component showing a fixture, and an off-screen image to paint it into
+    @State(Scope.Thread)
+    public static class Painting {
+        @Param({"early", "mid", "late"})
+        public String stage;
+
+        BoardComponent board;
+        BufferedImage image;
+        Rectangle whole, square;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Benchmarks.Fixture fixture = Benchmarks.stage(SharedDictionary.get(), stage, false);
+            int size = Benchmarks.CELL_SIZE * GameEngine.BOARD_SIZE;
+            image = TileImages.createCompatibleImage(size, size);
+            board = new BoardComponent(fixture.engine, Benchmarks.CELL_SIZE, (row, col) -> {});
+            board.setSize(size, size);
+            board.setShowHighlights(true);
+            whole = new Rectangle(0, 0, size, size);
+            square = new Rectangle(7 * Benchmarks.CELL_SIZE, 7 * Benchmarks.CELL_SIZE, Benchmarks.CELL_SIZE, Benchmarks.CELL_SIZE);
+        }
+    }
+
+    // Drop the tiles, check the words, take them back
+    @Benchmark
+    public boolean validateWords(Position p) {
+        Benchmarks.place(p.fixture);
+        boolean valid = p.fixture.engine.validateWords();
+        p.fixture.engine.resetPlacedTiles();
+        return valid;
+    }
+
+    // Drop and take back only, to see what validating adds
+    @Benchmark
+    public int placeAndReset(Position p) {
+        Benchmarks.place(p.fixture);
+        p.fixture.engine.resetPlacedTiles();
+        return p.fixture.engine.placedCount();
+    }
+
+    @Benchmark
+    public int calculateScore(Placed p) {
+        return p.fixture.engine.calculateScore();
+    }
+
+    @Benchmark
+    public int recalculateValidSpots(Placed p) {
+        p.fixture.engine.recalculateValidSpots();
+        return p.fixture.engine.placedCount();
+    }
+
+    @Benchmark
+    public long paintBoard(Painting p) {
+        return Benchmarks.paint(p.board, p.image, p.whole);
+    }
+
+    @Benchmark
+    public long paintSquare(Painting p) {
+        return Benchmarks.paint(p.board, p.image, p.square);
+    }
+}
@@ -0,0 +1,56 @@
+package FPT; // The folder containing all the other files in the project
+
+// Import statements
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+// How ParallelMoveSearch scales with threads, against the plain sequential generator on the same boards
+// Each thread count gets its own ForkJoinPool, so the numbers don't depend on the machine's common pool. Run it on a
+// machine with at least as many cores as the largest count, e.g.
+//   java -jar FPT/bench/target/benchmarks.jar SearchBenchmarks -p threads=1,2,4,8
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SearchBenchmarks {
+    @Param({"early", "mid", "late"})
+    public String stage;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private static final int TOP = 10; // Moves kept, like the live analysis and the simulations ask for
+
+    GameEngine engine;
+    MoveGenerator generator;
+    ForkJoinPool pool;
+    ParallelMoveSearch search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Lexicon lexicon = SharedDictionary.get();
+        engine = Benchmarks.stage(lexicon, stage, false).engine;
+        generator = new MoveGenerator(lexicon);
+        pool = new ForkJoinPool(threads);
+        search = new ParallelMoveSearch(lexicon, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // Every move on one thread (the same for every thread count, as the baseline)
+    @Benchmark
+    public List<Move> sequentialGenerate() {
+        return generator.generate(engine);
+    }
+
+    @Benchmark
+    public List<Move> parallelTopMoves() {
+        return search.topMoves(engine, TOP, MoveEvaluator.SCORE);
+    }
+}